@@ -9,6 +9,7 @@ public class CollaborationGraph extends JPanel {
     private final Map<String, Student> students;
     private final Map<String, List<String>> collaborations;
     private final Map<String, Point> nodePositions = new HashMap<>();
+    private Map<String, Integer> communities = Collections.emptyMap();
     private String selectedNode = null;
     private Consumer<String> nodeClickListener = name -> {};
 
@@ -48,6 +49,11 @@ public class CollaborationGraph extends JPanel {
         repaint();
     }
 
+    public void setCommunities(Map<String, Integer> communities) {
+        this.communities = communities;
+        repaint();
+    }
+
     public void setNodeClickListener(Consumer<String> listener) {
         this.nodeClickListener = listener;
     }
@@ -100,7 +106,9 @@ public class CollaborationGraph extends JPanel {
                 g2.setColor(Theme.PRIMARY_COLOR);
                 g2.fillOval(p.x - 10, p.y - 10, 20, 20);
             } else {
-                g2.setColor(Theme.SECONDARY_COLOR);
+                Integer community = communities.get(name);
+                g2.setColor(community == null ? Theme.SECONDARY_COLOR
+                        : Theme.COMMUNITY_COLORS[community % Theme.COMMUNITY_COLORS.length]);
                 g2.fillOval(p.x - 8, p.y - 8, 16, 16);
             }
 
@@ -0,0 +1,302 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Weighted, term-stamped collaboration edges. An old pairing counts for less
+// than last term's: each edge's weight decays by half every halfLifeTerms terms,
+// and repeat pairings add up. Edges are CSR rows (offsets/targets, targets sorted
+// per row) with parallel arrays for the weight and the last term, so a lookup is
+// two map hits and a binary search with no allocation. Updates publish a new set
+// of arrays, so lookups never lock.
+//
+// Weights are stored divided by a shared scale factor, so moving to a new term
+// only multiplies the scale instead of touching every edge; scoring cost does not
+// depend on how many terms of history there are.
+public class CollaborationHistory {
+    public static final double DEFAULT_HALF_LIFE_TERMS = 2;
+    // Fold the scale back into the stored weights before they get too large for a double
+    private static final double RENORMALIZE_BELOW = 1e-100;
+
+    private final double decayPerTerm;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private volatile Edges edges = new Edges(new int[] { 0 }, new int[0], new double[0], new int[0], 1, new String[0]);
+    private volatile long version;
+    private int currentTerm = Integer.MIN_VALUE;
+
+    // One immutable version of every row. Hot loops read a source's row through it
+    // with primitive ids; weights come back already decayed to the current term.
+    public static final class Edges {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+        final int[] lastTerms;
+        final double scale;
+        final String[] names;
+
+        Edges(int[] offsets, int[] targets, double[] weights, int[] lastTerms, double scale, String[] names) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.lastTerms = lastTerms;
+            this.scale = scale;
+            this.names = names;
+        }
+
+        // Ids of sources added after this version have empty rows
+        public int rowStart(int source) {
+            return source >= 0 && source < offsets.length - 1 ? offsets[source] : 0;
+        }
+
+        public int rowEnd(int source) {
+            return source >= 0 && source < offsets.length - 1 ? offsets[source + 1] : 0;
+        }
+
+        public int target(int edge) {
+            return targets[edge];
+        }
+
+        public double weight(int edge) {
+            return weights[edge] * scale;
+        }
+
+        public int nameCount() {
+            return names.length;
+        }
+
+        public String name(int id) {
+            return names[id];
+        }
+    }
+
+    public CollaborationHistory(double halfLifeTerms) {
+        this.decayPerTerm = Math.pow(0.5, 1 / halfLifeTerms);
+    }
+
+    // Every pairing in a 0/1 adjacency map as weight 1 in term 0, e.g. to start a history
+    // for a roster that was loaded without Weight/Term columns
+    public static CollaborationHistory fromAdjacency(Map<String, List<String>> adjacency, double halfLifeTerms) {
+        CollaborationHistory history = new CollaborationHistory(halfLifeTerms);
+        Batch batch = history.newBatch();
+        for (Map.Entry<String, List<String>> row : adjacency.entrySet()) {
+            for (String partner : row.getValue()) {
+                batch.add(row.getKey(), partner, 1, 0);
+            }
+        }
+        history.advanceTo(0);
+        history.ingest(batch);
+        return history;
+    }
+
+    // Edges collected for one call to ingest; names are given ids as they are added
+    public class Batch {
+        private int size;
+        private int[] sources = new int[16];
+        private int[] batchTargets = new int[16];
+        private double[] batchWeights = new double[16];
+        private int[] terms = new int[16];
+
+        public void add(String source, String target, double weight, int term) {
+            if (size == sources.length) {
+                int capacity = size * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                batchTargets = Arrays.copyOf(batchTargets, capacity);
+                batchWeights = Arrays.copyOf(batchWeights, capacity);
+                terms = Arrays.copyOf(terms, capacity);
+            }
+            sources[size] = idFor(source);
+            batchTargets[size] = idFor(target);
+            batchWeights[size] = weight;
+            terms[size] = term;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    // Merges a batch into the history. When the batch has a newer term than any seen
+    // so far, everything already stored decays to that term in O(1).
+    public synchronized void ingest(Batch batch) {
+        int newest = currentTerm;
+        for (int i = 0; i < batch.size; i++) {
+            newest = Math.max(newest, batch.terms[i]);
+        }
+        if (newest == Integer.MIN_VALUE) return;
+        advanceTo(newest);
+        Edges old = edges;
+        int[] offsets = old.offsets;
+        int[] targets = old.targets;
+        double[] weights = old.weights;
+        int[] lastTerms = old.lastTerms;
+
+        int rows = names.size();
+        int[] newOffsets = new int[rows + 1];
+        // Counting sort of the batch by source, then by target within each source
+        int[] rowStart = new int[rows + 1];
+        for (int i = 0; i < batch.size; i++) {
+            rowStart[batch.sources[i] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) {
+            rowStart[r + 1] += rowStart[r];
+        }
+        long[] order = new long[batch.size];
+        int[] fill = Arrays.copyOf(rowStart, rows);
+        for (int i = 0; i < batch.size; i++) {
+            order[fill[batch.sources[i]]++] = ((long) batch.batchTargets[i] << 32) | i;
+        }
+        for (int r = 0; r < rows; r++) {
+            Arrays.sort(order, rowStart[r], rowStart[r + 1]);
+        }
+
+        int oldRows = offsets.length - 1;
+        int capacity = targets.length + batch.size;
+        int[] mergedTargets = new int[capacity];
+        double[] mergedWeights = new double[capacity];
+        int[] mergedTerms = new int[capacity];
+        int out = 0;
+        for (int r = 0; r < rows; r++) {
+            int e = r < oldRows ? offsets[r] : 0;
+            int eEnd = r < oldRows ? offsets[r + 1] : 0;
+            int b = rowStart[r];
+            int bEnd = rowStart[r + 1];
+            while (e < eEnd || b < bEnd) {
+                int batchTarget = b < bEnd ? (int) (order[b] >>> 32) : Integer.MAX_VALUE;
+                int target = e < eEnd ? Math.min(targets[e], batchTarget) : batchTarget;
+                mergedTargets[out] = target;
+                mergedWeights[out] = 0;
+                mergedTerms[out] = Integer.MIN_VALUE;
+                if (e < eEnd && targets[e] == target) {
+                    mergedWeights[out] = weights[e];
+                    mergedTerms[out] = lastTerms[e];
+                    e++;
+                }
+                // All batch rows for this pair; a pairing listed twice in the same term
+                // (e.g. once per direction) counts once, at its largest weight
+                int runEnd = b;
+                while (runEnd < bEnd && (int) (order[runEnd] >>> 32) == target) runEnd++;
+                for (int k = b; k < runEnd; k++) {
+                    int i = (int) order[k];
+                    boolean strongest = true;
+                    for (int m = b; m < runEnd && strongest; m++) {
+                        int j = (int) order[m];
+                        if (j != i && batch.terms[j] == batch.terms[i] && (batch.batchWeights[j] > batch.batchWeights[i]
+                                || (batch.batchWeights[j] == batch.batchWeights[i] && m < k))) {
+                            strongest = false;
+                        }
+                    }
+                    if (!strongest) continue;
+                    mergedWeights[out] += batch.batchWeights[i] * Math.pow(decayPerTerm, newest - batch.terms[i]) / old.scale;
+                    mergedTerms[out] = Math.max(mergedTerms[out], batch.terms[i]);
+                }
+                b = runEnd;
+                out++;
+            }
+            newOffsets[r + 1] = out;
+        }
+
+        edges = new Edges(newOffsets, Arrays.copyOf(mergedTargets, out), Arrays.copyOf(mergedWeights, out),
+                Arrays.copyOf(mergedTerms, out), old.scale, names.toArray(new String[0]));
+        version++;
+    }
+
+    // Starts a new term with no new edges, e.g. to age the history before scoring
+    public synchronized void advanceTo(int term) {
+        if (currentTerm == Integer.MIN_VALUE) {
+            currentTerm = term;
+            version++;
+            return;
+        }
+        if (term <= currentTerm) return;
+        Edges old = edges;
+        double scale = old.scale * Math.pow(decayPerTerm, term - currentTerm);
+        double[] weights = old.weights;
+        if (scale < RENORMALIZE_BELOW) {
+            weights = new double[weights.length];
+            for (int e = 0; e < weights.length; e++) {
+                weights[e] = old.weights[e] * scale;
+            }
+            scale = 1;
+        }
+        edges = new Edges(old.offsets, old.targets, weights, old.lastTerms, scale, old.names);
+        currentTerm = term;
+        version++;
+    }
+
+    // Decayed weight of source's collaborations with target as of the current term; 0 if none
+    public double weight(String source, String target) {
+        Edges snapshot = edges;
+        int e = edge(snapshot, source, target);
+        return e < 0 ? 0 : snapshot.weights[e] * snapshot.scale;
+    }
+
+    // Most recent term the pair worked together, or -1 if never
+    public int lastTerm(String source, String target) {
+        Edges snapshot = edges;
+        int e = edge(snapshot, source, target);
+        return e < 0 ? -1 : snapshot.lastTerms[e];
+    }
+
+    // The current version of all rows, for reading many edges consistently
+    public Edges edges() {
+        return edges;
+    }
+
+    // Id used by Edges for name, or -1
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    // Every partner of source with its decayed weight as of the current term
+    public Map<String, Double> partners(String source) {
+        Edges snapshot = edges;
+        Integer s = ids.get(source);
+        Map<String, Double> result = new HashMap<>();
+        if (s == null || s >= snapshot.offsets.length - 1) return result;
+        for (int e = snapshot.offsets[s]; e < snapshot.offsets[s + 1]; e++) {
+            result.put(snapshot.names[snapshot.targets[e]], snapshot.weights[e] * snapshot.scale);
+        }
+        return result;
+    }
+
+    public boolean contains(String source, String target) {
+        return edge(edges, source, target) >= 0;
+    }
+
+    public int getCurrentTerm() {
+        return currentTerm;
+    }
+
+    // Changes whenever an ingest or a new term changes any weight, so callers can tell
+    // when values they cached from this history are stale
+    public long getVersion() {
+        return version;
+    }
+
+    public int edgeCount() {
+        return edges.targets.length;
+    }
+
+    private int edge(Edges snapshot, String source, String target) {
+        Integer s = ids.get(source);
+        Integer t = ids.get(target);
+        if (s == null || t == null || s >= snapshot.offsets.length - 1) return -1;
+        int e = Arrays.binarySearch(snapshot.targets, snapshot.offsets[s], snapshot.offsets[s + 1], t);
+        return e < 0 ? -1 : e;
+    }
+
+    private synchronized int idFor(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+}
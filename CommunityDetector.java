@@ -0,0 +1,113 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Finds clusters of students with parallel label propagation: every node starts
+// in its own community and repeatedly adopts the most common label among its
+// neighbours until labels stop changing. Each round is spread over all cores.
+public class CommunityDetector {
+    private static final int DEFAULT_MAX_ITERATIONS = 50;
+
+    private final IndexedGraph graph;
+    private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[64]);
+
+    public CommunityDetector(IndexedGraph graph) {
+        this.graph = graph;
+    }
+
+    public Map<String, Integer> detect() {
+        return detect(DEFAULT_MAX_ITERATIONS, 42L);
+    }
+
+    // Returns a community id per student; ids are 0..k-1 with 0 the largest community
+    public Map<String, Integer> detect(int maxIterations, long seed) {
+        int n = graph.size();
+        int[] labels = new int[n];
+        for (int v = 0; v < n; v++) {
+            labels[v] = v;
+        }
+
+        int[] order = IntStream.range(0, n).toArray();
+        Random random = new Random(seed);
+        for (int round = 0; round < maxIterations; round++) {
+            shuffle(order, random);
+            // Labels are updated in place; a thread may read a neighbour's label from
+            // this round or the last one, which only changes the order of convergence
+            int changed = IntStream.range(0, n)
+                    .parallel()
+                    .map(i -> update(order[i], labels) ? 1 : 0)
+                    .sum();
+            if (changed == 0) break;
+        }
+
+        return compact(labels);
+    }
+
+    private boolean update(int node, int[] labels) {
+        int start = graph.neighborStart(node);
+        int degree = graph.degree(node);
+        if (degree == 0) return false;
+
+        int[] buffer = buffers.get();
+        if (buffer.length < degree) {
+            buffer = new int[Math.max(degree, buffer.length * 2)];
+            buffers.set(buffer);
+        }
+        for (int i = 0; i < degree; i++) {
+            buffer[i] = labels[graph.neighborAt(start + i)];
+        }
+        Arrays.sort(buffer, 0, degree);
+
+        int current = labels[node];
+        int best = buffer[0];
+        int bestCount = 0;
+        int currentCount = 0;
+        for (int i = 0; i < degree; ) {
+            int j = i;
+            while (j < degree && buffer[j] == buffer[i]) j++;
+            int count = j - i;
+            if (count > bestCount) {
+                best = buffer[i];
+                bestCount = count;
+            }
+            if (buffer[i] == current) currentCount = count;
+            i = j;
+        }
+
+        // Keep the current label on ties so nodes do not flip back and forth
+        if (currentCount == bestCount || best == current) return false;
+        labels[node] = best;
+        return true;
+    }
+
+    private Map<String, Integer> compact(int[] labels) {
+        int n = labels.length;
+        int[] sizes = new int[n];
+        for (int label : labels) {
+            sizes[label]++;
+        }
+        Integer[] byLabel = IntStream.range(0, n)
+                .filter(label -> sizes[label] > 0)
+                .boxed()
+                .sorted((a, b) -> sizes[b] != sizes[a] ? sizes[b] - sizes[a] : a - b)
+                .toArray(Integer[]::new);
+        int[] ids = new int[n];
+        for (int i = 0; i < byLabel.length; i++) {
+            ids[byLabel[i]] = i;
+        }
+
+        Map<String, Integer> communities = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            communities.put(graph.name(v), ids[labels[v]]);
+        }
+        return communities;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.*;
+
+// Re-ranks a relevance-ordered candidate list so the top K are not all the same
+// kind of student. Each pick maximizes
+//   relevance + diversityWeight * (features not yet covered by earlier picks)
+// where a candidate's features are its major and each skill at its level. The
+// coverage term is submodular (a feature only pays off the first time), so a
+// candidate's gain can only shrink as picks are made. That lets the greedy loop
+// keep cached gains in a heap and only recompute the one on top (lazy greedy):
+// most candidates are never re-evaluated, and diversityWeight 0 returns the
+// input order unchanged.
+public class DiversityReranker {
+    private final Map<String, Student> students;
+    private final Map<String, Integer> featureIds = new HashMap<>();
+
+    public DiversityReranker(Map<String, Student> students) {
+        this.students = students;
+    }
+
+    // candidates are best first and relevance[i] is the score of candidates.get(i)
+    public List<String> rerank(List<String> candidates, int[] relevance, int max, int diversityWeight) {
+        int n = candidates.size();
+        if (diversityWeight <= 0 || n <= 1) return new ArrayList<>(candidates.subList(0, Math.min(max, n)));
+
+        // Features are only resolved for candidates that reach the top of the heap;
+        // until then the bound assumes every one of them is new
+        int[][] features = new int[n][];
+        List<long[]> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Student s = students.get(candidates.get(i));
+            int count = s == null ? 0 : s.getSkills().size() + 1;
+            entries.add(new long[] { relevance[i] + (long) diversityWeight * count, i, -1 });
+        }
+
+        // Heap entries are {cached gain, candidate index, pick count when the gain was computed};
+        // ties go to the candidate that was ranked higher to begin with
+        Comparator<long[]> byGain = (a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(a[1], b[1]);
+        PriorityQueue<long[]> heap = new PriorityQueue<>(byGain);
+        heap.addAll(entries);
+
+        Set<Integer> covered = new HashSet<>();
+        List<String> result = new ArrayList<>(Math.min(max, n));
+        while (result.size() < max && !heap.isEmpty()) {
+            long[] top = heap.poll();
+            int i = (int) top[1];
+            if (top[2] == result.size()) {
+                // Gain is current and every other cached gain is an upper bound, so this is the best pick
+                result.add(candidates.get(i));
+                if (features[i] == null) features[i] = featuresOf(candidates.get(i));
+                for (int feature : features[i]) {
+                    covered.add(feature);
+                }
+                continue;
+            }
+            if (features[i] == null) features[i] = featuresOf(candidates.get(i));
+            int uncovered = 0;
+            for (int feature : features[i]) {
+                if (!covered.contains(feature)) uncovered++;
+            }
+            top[0] = relevance[i] + (long) diversityWeight * uncovered;
+            top[2] = result.size();
+            heap.add(top);
+        }
+        return result;
+    }
+
+    // How many distinct majors and skill levels a list covers; shown next to the ranking
+    public int coverage(List<String> names) {
+        Set<Integer> covered = new HashSet<>();
+        for (String name : names) {
+            for (int feature : featuresOf(name)) {
+                covered.add(feature);
+            }
+        }
+        return covered.size();
+    }
+
+    private int[] featuresOf(String name) {
+        Student s = students.get(name);
+        if (s == null) return new int[0];
+        Map<String, Integer> skills = s.getSkills();
+        int[] features = new int[skills.size() + 1];
+        int k = 0;
+        features[k++] = featureId("major:" + s.getMajor());
+        for (Map.Entry<String, Integer> skill : skills.entrySet()) {
+            features[k++] = featureId("skill:" + skill.getKey() + "=" + skill.getValue());
+        }
+        return features;
+    }
+
+    private int featureId(String feature) {
+        synchronized (featureIds) {
+            return featureIds.computeIfAbsent(feature, f -> featureIds.size());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+// Streams a dense 0/1 matrix CSV into the sparse "Source,Target" edge-list format
+// understood by StudentDataLoader.loadAdjacency. Only one matrix row is held in
+// memory at a time; output ending in ".gz" is gzip-compressed.
+public class EdgeListConverter {
+
+    public static long convert(String matrixPath, String edgeListPath) throws IOException {
+        try (BufferedReader reader = StudentDataLoader.openReader(matrixPath);
+             Writer writer = openWriter(edgeListPath)) {
+            String[] headers = reader.readLine().split(",");
+            if (StudentDataLoader.isEdgeListHeader(headers)) {
+                throw new IOException(matrixPath + " is already an edge list");
+            }
+            String[] names = new String[headers.length];
+            for (int i = 1; i < headers.length; i++) {
+                names[i] = headers[i].trim();
+            }
+
+            writer.write("Source,Target\n");
+            long edges = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma < 0) continue;
+                String name = line.substring(0, comma).trim();
+                // Walk the row cell by cell instead of splitting it into N strings
+                int column = 1;
+                int start = comma + 1;
+                while (start <= line.length() && column < names.length) {
+                    int end = line.indexOf(',', start);
+                    if (end < 0) end = line.length();
+                    if (isOne(line, start, end)) {
+                        writer.write(name);
+                        writer.write(',');
+                        writer.write(names[column]);
+                        writer.write('\n');
+                        edges++;
+                    }
+                    column++;
+                    start = end + 1;
+                }
+            }
+            return edges;
+        }
+    }
+
+    private static boolean isOne(String line, int start, int end) {
+        while (start < end && line.charAt(start) == ' ') start++;
+        while (end > start && line.charAt(end - 1) == ' ') end--;
+        return end - start == 1 && line.charAt(start) == '1';
+    }
+
+    private static Writer openWriter(String path) throws IOException {
+        OutputStream out = new FileOutputStream(path);
+        if (path.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java EdgeListConverter <matrix.csv> <edges.csv[.gz]>");
+            System.exit(1);
+        }
+        long edges = convert(args[0], args[1]);
+        System.out.println("Wrote " + edges + " edges to " + args[1]);
+    }
+}
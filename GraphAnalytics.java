@@ -0,0 +1,268 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+// Whole-graph statistics over the collaboration network: connected components,
+// degree distribution, isolated students and sampled centrality. An IndexedGraph
+// never changes, so each result is computed on first use and kept; hold one instance
+// for as long as the graph it describes.
+public class GraphAnalytics {
+    private static final int DEFAULT_SAMPLES = 64;
+
+    private final IndexedGraph graph;
+    private int[] components;
+    private int componentCount;
+    private double[] betweenness;
+    private double[] closeness;
+
+    public GraphAnalytics(IndexedGraph graph) {
+        this.graph = graph;
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    // Component id per node, ids are 0..k-1 with 0 the largest component
+    public int[] components() {
+        return componentIds().clone();
+    }
+
+    private synchronized int[] componentIds() {
+        if (components == null) computeComponents();
+        return components;
+    }
+
+    public synchronized int componentCount() {
+        if (components == null) computeComponents();
+        return componentCount;
+    }
+
+    public int[] componentSizes() {
+        int[] sizes = new int[componentCount()];
+        for (int c : componentIds()) {
+            sizes[c]++;
+        }
+        return sizes;
+    }
+
+    // histogram[d] is the number of students with exactly d distinct partners
+    public int[] degreeDistribution() {
+        int maxDegree = IntStream.range(0, graph.size()).parallel().map(graph::degree).max().orElse(0);
+        int[] histogram = new int[maxDegree + 1];
+        for (int v = 0; v < graph.size(); v++) {
+            histogram[graph.degree(v)]++;
+        }
+        return histogram;
+    }
+
+    public List<String> isolatedStudents() {
+        return studentsWithDegreeAtMost(0);
+    }
+
+    public List<String> studentsWithDegreeAtMost(int maxDegree) {
+        return IntStream.range(0, graph.size())
+                .parallel()
+                .filter(v -> graph.degree(v) <= maxDegree)
+                .mapToObj(graph::name)
+                .sorted()
+                .toList();
+    }
+
+    // Approximate betweenness, scaled up from Brandes' algorithm on sampled sources
+    public double[] betweenness() {
+        return betweennessValues().clone();
+    }
+
+    private synchronized double[] betweennessValues() {
+        if (betweenness == null) computeCentrality(DEFAULT_SAMPLES, 7L);
+        return betweenness;
+    }
+
+    // Approximate harmonic closeness: mean of 1/distance to the sampled sources
+    public double[] closeness() {
+        return closenessValues().clone();
+    }
+
+    private synchronized double[] closenessValues() {
+        if (closeness == null) computeCentrality(DEFAULT_SAMPLES, 7L);
+        return closeness;
+    }
+
+    public List<String> topByBetweenness(int limit) {
+        return topBy(betweennessValues(), limit);
+    }
+
+    public List<String> topByCloseness(int limit) {
+        return topBy(closenessValues(), limit);
+    }
+
+    private List<String> topBy(double[] values, int limit) {
+        return IntStream.range(0, values.length)
+                .boxed()
+                .sorted((a, b) -> Double.compare(values[b], values[a]))
+                .limit(limit)
+                .map(graph::name)
+                .toList();
+    }
+
+    private void computeComponents() {
+        int n = graph.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+
+        IntStream.range(0, n).parallel().forEach(v -> {
+            for (int p = graph.neighborStart(v); p < graph.neighborEnd(v); p++) {
+                int u = graph.neighborAt(p);
+                if (u > v) union(parent, u, v);
+            }
+        });
+
+        int[] root = new int[n];
+        int[] sizes = new int[n];
+        for (int v = 0; v < n; v++) {
+            root[v] = find(parent, v);
+            sizes[root[v]]++;
+        }
+
+        Integer[] roots = IntStream.range(0, n)
+                .filter(r -> sizes[r] > 0)
+                .boxed()
+                .sorted((a, b) -> sizes[b] != sizes[a] ? sizes[b] - sizes[a] : a - b)
+                .toArray(Integer[]::new);
+        int[] ids = new int[n];
+        for (int i = 0; i < roots.length; i++) {
+            ids[roots[i]] = i;
+        }
+
+        components = new int[n];
+        for (int v = 0; v < n; v++) {
+            components[v] = ids[root[v]];
+        }
+        componentCount = roots.length;
+    }
+
+    // Lock-free union-find: the root with the larger index is always linked under the smaller one
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) return;
+            if (a < b) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            if (parent.compareAndSet(a, a, b)) return;
+        }
+    }
+
+    private static int find(AtomicIntegerArray parent, int v) {
+        while (true) {
+            int p = parent.get(v);
+            if (p == v) return v;
+            int gp = parent.get(p);
+            if (gp != p) parent.compareAndSet(v, p, gp); // path halving
+            v = gp;
+        }
+    }
+
+    private void computeCentrality(int samples, long seed) {
+        int n = graph.size();
+        int k = Math.min(samples, n);
+        int[] sources = IntStream.range(0, n).toArray();
+        Random random = new Random(seed);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = sources[i];
+            sources[i] = sources[j];
+            sources[j] = tmp;
+        }
+
+        SampleAccumulator total = IntStream.range(0, k)
+                .parallel()
+                .collect(() -> new SampleAccumulator(n),
+                        (acc, i) -> acc.addSource(sources[i]),
+                        SampleAccumulator::merge);
+
+        betweenness = new double[n];
+        closeness = new double[n];
+        double scale = k == 0 ? 0 : (double) n / k;
+        for (int v = 0; v < n; v++) {
+            betweenness[v] = total.dependency[v] * scale / 2; // each path is counted from both ends
+            closeness[v] = k == 0 ? 0 : total.inverseDistance[v] / k;
+        }
+    }
+
+    // Per-thread scratch space for one BFS plus running totals for its sources
+    private class SampleAccumulator {
+        final double[] dependency;
+        final double[] inverseDistance;
+        final int[] distance;
+        final double[] pathCount;
+        final double[] delta;
+        final int[] order;
+
+        SampleAccumulator(int n) {
+            dependency = new double[n];
+            inverseDistance = new double[n];
+            distance = new int[n];
+            pathCount = new double[n];
+            delta = new double[n];
+            order = new int[n];
+            Arrays.fill(distance, -1);
+        }
+
+        void addSource(int source) {
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            distance[source] = 0;
+            pathCount[source] = 1;
+
+            while (head < tail) {
+                int v = order[head++];
+                for (int p = graph.neighborStart(v); p < graph.neighborEnd(v); p++) {
+                    int w = graph.neighborAt(p);
+                    if (distance[w] < 0) {
+                        distance[w] = distance[v] + 1;
+                        order[tail++] = w;
+                    }
+                    if (distance[w] == distance[v] + 1) {
+                        pathCount[w] += pathCount[v];
+                    }
+                }
+            }
+
+            // Brandes back-propagation in reverse BFS order; also resets scratch arrays
+            for (int i = tail - 1; i >= 0; i--) {
+                int w = order[i];
+                for (int p = graph.neighborStart(w); p < graph.neighborEnd(w); p++) {
+                    int v = graph.neighborAt(p);
+                    if (distance[v] == distance[w] - 1) {
+                        delta[v] += pathCount[v] / pathCount[w] * (1 + delta[w]);
+                    }
+                }
+                if (w != source) {
+                    dependency[w] += delta[w];
+                    inverseDistance[w] += 1.0 / distance[w];
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                int w = order[i];
+                distance[w] = -1;
+                pathCount[w] = 0;
+                delta[w] = 0;
+            }
+        }
+
+        void merge(SampleAccumulator other) {
+            for (int v = 0; v < dependency.length; v++) {
+                dependency[v] += other.dependency[v];
+                inverseDistance[v] += other.inverseDistance[v];
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.*;
+
+// Compact undirected view of one or more adjacency maps: names are mapped to
+// 0..n-1 and neighbours are stored in flat int arrays (CSR layout), so graph
+// algorithms can run over millions of edges without boxing or per-node lists.
+public class IndexedGraph {
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    @SafeVarargs
+    public IndexedGraph(Map<String, List<String>>... graphs) {
+        this(Collections.emptySet(), graphs);
+    }
+
+    // Every name in extraNodes becomes a node even if it has no edges
+    @SafeVarargs
+    public IndexedGraph(Collection<String> extraNodes, Map<String, List<String>>... graphs) {
+        index = new LinkedHashMap<>();
+        for (String name : extraNodes) {
+            index.putIfAbsent(name, index.size());
+        }
+        for (Map<String, List<String>> graph : graphs) {
+            for (Map.Entry<String, List<String>> entry : graph.entrySet()) {
+                index.putIfAbsent(entry.getKey(), index.size());
+                for (String other : entry.getValue()) {
+                    index.putIfAbsent(other, index.size());
+                }
+            }
+        }
+        names = index.keySet().toArray(new String[0]);
+
+        // Collect each undirected edge once as a packed (low, high) pair
+        long[] edges = new long[16];
+        int edgeCount = 0;
+        for (Map<String, List<String>> graph : graphs) {
+            for (Map.Entry<String, List<String>> entry : graph.entrySet()) {
+                int a = index.get(entry.getKey());
+                for (String other : entry.getValue()) {
+                    int b = index.get(other);
+                    if (a == b) continue;
+                    if (edgeCount == edges.length) edges = Arrays.copyOf(edges, edges.length * 2);
+                    edges[edgeCount++] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+                }
+            }
+        }
+        Arrays.parallelSort(edges, 0, edgeCount);
+
+        int n = names.length;
+        int[] degree = new int[n];
+        int unique = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            if (i > 0 && edges[i] == edges[i - 1]) continue;
+            edges[unique++] = edges[i];
+            degree[(int) (edges[i] >>> 32)]++;
+            degree[(int) edges[i]]++;
+        }
+
+        offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + degree[v];
+        }
+        neighbors = new int[offsets[n]];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < unique; i++) {
+            int a = (int) (edges[i] >>> 32);
+            int b = (int) edges[i];
+            neighbors[cursor[a]++] = b;
+            neighbors[cursor[b]++] = a;
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return neighbors.length / 2;
+    }
+
+    public String name(int node) {
+        return names[node];
+    }
+
+    // Returns -1 for names that are not in the graph
+    public int indexOf(String name) {
+        return index.getOrDefault(name, -1);
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int neighborStart(int node) {
+        return offsets[node];
+    }
+
+    public int neighborEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int neighborAt(int position) {
+        return neighbors[position];
+    }
+}
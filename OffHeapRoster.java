@@ -0,0 +1,508 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Roster stored outside the Java heap for very large classes. Names and majors are
+// interned into off-heap string tables, each student's skills are a fixed-width
+// record of one byte per skill column, and collaborations are CSR adjacency arrays.
+// Students are addressed by int id, so scoring touches no per-student objects and
+// heap usage does not grow with the roster.
+//
+// Built on direct ByteBuffers because the tree targets Java 17, where the Foreign
+// Function & Memory API (MemorySegment/Arena) is not yet final.
+public class OffHeapRoster {
+    private final String[] skillNames;
+    private final StringTable names = new StringTable();
+    private final StringTable majors = new StringTable();
+    private final StringTable majorKeys = new StringTable(); // case-folded majors
+    private ByteBuffer majorIds = allocate(1024);     // int per student
+    private ByteBuffer majorKeyIds = allocate(1024);  // int per student, equal when majors match ignoring case
+    private ByteBuffer skillRecords = allocate(1024); // skillNames.length bytes per student
+    private ByteBuffer present = allocate(256);       // 1 once a student has both a major and skills
+    private ByteBuffer communities = allocate(0);     // int per student, -1 when unknown
+    private ByteBuffer adjacencyOffsets;              // int per student + 1
+    private ByteBuffer adjacency;                     // int per edge, sorted within each student
+    private int studentCount;
+    private int presentCount;
+
+    private OffHeapRoster(String[] skillNames) {
+        this.skillNames = skillNames;
+    }
+
+    // Streams the same three files StudentDataLoader reads, without building heap maps
+    public static OffHeapRoster load(String studentFile, String skillFile, String collaborationFile) throws IOException {
+        OffHeapRoster roster;
+        try (BufferedReader reader = StudentDataLoader.openReader(skillFile)) {
+            String[] headers = reader.readLine().split(",");
+            String[] skillNames = new String[headers.length - 1];
+            for (int i = 1; i < headers.length; i++) {
+                skillNames[i - 1] = headers[i].trim();
+            }
+            roster = new OffHeapRoster(skillNames);
+            roster.loadMajors(studentFile);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split(",");
+                int id = roster.names.find(data[0].trim());
+                if (id < 0) continue;
+                int base = id * skillNames.length;
+                for (int i = 1; i < data.length && i <= skillNames.length; i++) {
+                    int level;
+                    try {
+                        level = Integer.parseInt(data[i].trim());
+                    } catch (NumberFormatException e) {
+                        level = 1; // default
+                    }
+                    roster.skillRecords.put(base + i - 1, (byte) level);
+                }
+                if (roster.present.get(id) == 0) roster.presentCount++;
+                roster.present.put(id, (byte) 1);
+            }
+        }
+        roster.loadCollaborations(collaborationFile);
+        return roster;
+    }
+
+    private void loadMajors(String path) throws IOException {
+        try (BufferedReader reader = StudentDataLoader.openReader(path)) {
+            String[] headers = reader.readLine().split(",");
+            int majorIdx = Arrays.asList(headers).indexOf("Major");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split(",");
+                if (data.length > majorIdx) {
+                    int id = names.intern(data[0].trim());
+                    studentCount = names.size();
+                    majorIds = ensure(majorIds, studentCount * 4);
+                    majorKeyIds = ensure(majorKeyIds, studentCount * 4);
+                    skillRecords = ensure(skillRecords, studentCount * skillNames.length);
+                    present = ensure(present, studentCount);
+                    String major = data[majorIdx].trim();
+                    majorIds.putInt(id * 4, majors.intern(major));
+                    // Folded like String.equalsIgnoreCase, so scoring compares ints instead of strings
+                    majorKeyIds.putInt(id * 4, majorKeys.intern(major.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT)));
+                }
+            }
+        }
+    }
+
+    private void loadCollaborations(String path) throws IOException {
+        // Buffer (source, target) id pairs off-heap, then counting-sort them into CSR
+        ByteBuffer[] edges = { allocate(1024) };
+        int[] edgeCount = { 0 };
+        StudentDataLoader.readEdges(path, (name, partners) -> { }, (source, target) -> {
+            int a = names.find(source);
+            int b = names.find(target);
+            if (a < 0 || b < 0) return;
+            edges[0] = ensure(edges[0], (edgeCount[0] + 1) * 8);
+            edges[0].putInt(edgeCount[0] * 8, a);
+            edges[0].putInt(edgeCount[0] * 8 + 4, b);
+            edgeCount[0]++;
+        });
+
+        adjacencyOffsets = allocate((studentCount + 1) * 4);
+        for (int e = 0; e < edgeCount[0]; e++) {
+            int a = edges[0].getInt(e * 8);
+            adjacencyOffsets.putInt((a + 1) * 4, adjacencyOffsets.getInt((a + 1) * 4) + 1);
+        }
+        for (int v = 0; v < studentCount; v++) {
+            adjacencyOffsets.putInt((v + 1) * 4, adjacencyOffsets.getInt((v + 1) * 4) + adjacencyOffsets.getInt(v * 4));
+        }
+        adjacency = allocate(edgeCount[0] * 4);
+        ByteBuffer cursor = allocate(studentCount * 4);
+        for (int e = 0; e < edgeCount[0]; e++) {
+            int a = edges[0].getInt(e * 8);
+            int slot = adjacencyOffsets.getInt(a * 4) + cursor.getInt(a * 4);
+            cursor.putInt(a * 4, cursor.getInt(a * 4) + 1);
+            adjacency.putInt(slot * 4, edges[0].getInt(e * 8 + 4));
+        }
+
+        // Sort each row so hasCollaborated can binary search, and drop pairings an edge
+        // list named in both directions; rows only move left, so this compacts in place
+        int[] row = new int[16];
+        int out = 0;
+        int start = 0;
+        for (int v = 0; v < studentCount; v++) {
+            int end = adjacencyOffsets.getInt((v + 1) * 4);
+            int degree = end - start;
+            if (row.length < degree) row = new int[degree];
+            for (int i = 0; i < degree; i++) row[i] = adjacency.getInt((start + i) * 4);
+            Arrays.sort(row, 0, degree);
+            adjacencyOffsets.putInt(v * 4, out);
+            for (int i = 0; i < degree; i++) {
+                if (i > 0 && row[i] == row[i - 1]) continue;
+                adjacency.putInt(out++ * 4, row[i]);
+            }
+            start = end;
+        }
+        adjacencyOffsets.putInt(studentCount * 4, out);
+    }
+
+    public int size() {
+        return studentCount;
+    }
+
+    // Returns -1 for unknown names and for students missing from skills.csv
+    public int indexOf(String name) {
+        int id = names.find(name);
+        return id >= 0 && isPresent(id) ? id : -1;
+    }
+
+    public boolean isPresent(int id) {
+        return present.get(id) != 0;
+    }
+
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    public String major(int id) {
+        return majors.get(majorIds.getInt(id * 4));
+    }
+
+    public String[] getSkillNames() {
+        return skillNames.clone();
+    }
+
+    public int skill(int id, int column) {
+        return skillRecords.get(id * skillNames.length + column);
+    }
+
+    // Majors are compared case-insensitively, like RecommendationEngine does
+    public boolean sharesMajor(int a, int b) {
+        return majorKeyIds.getInt(a * 4) == majorKeyIds.getInt(b * 4);
+    }
+
+    public int skillSurplus(int source, int target) {
+        int width = skillNames.length;
+        int a = source * width;
+        int b = target * width;
+        int surplus = 0;
+        for (int i = 0; i < width; i++) {
+            int delta = skillRecords.get(b + i) - skillRecords.get(a + i);
+            if (delta > 0) surplus += delta;
+        }
+        return surplus;
+    }
+
+    public boolean hasCollaborated(int source, int target) {
+        int low = adjacencyOffsets.getInt(source * 4);
+        int high = adjacencyOffsets.getInt((source + 1) * 4) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = adjacency.getInt(mid * 4);
+            if (value < target) low = mid + 1;
+            else if (value > target) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    public List<String> partners(int id) {
+        int start = adjacencyOffsets.getInt(id * 4);
+        int end = adjacencyOffsets.getInt((id + 1) * 4);
+        List<String> result = new ArrayList<>(end - start);
+        for (int p = start; p < end; p++) {
+            result.add(names.get(adjacency.getInt(p * 4)));
+        }
+        return result;
+    }
+
+    public void setCommunities(Map<String, Integer> byName) {
+        communities = allocate(studentCount * 4);
+        for (int id = 0; id < studentCount; id++) {
+            communities.putInt(id * 4, byName.getOrDefault(names.get(id), -1));
+        }
+    }
+
+    public boolean inDifferentCommunities(int a, int b) {
+        if (communities.capacity() == 0) return false;
+        int ca = communities.getInt(a * 4);
+        int cb = communities.getInt(b * 4);
+        return ca >= 0 && cb >= 0 && ca != cb;
+    }
+
+    public int score(int source, int target, int majorWeight, int skillWeight, int collabPenalty, int communityBonus) {
+        int score = 0;
+        if (sharesMajor(source, target)) score += majorWeight;
+        score += skillSurplus(source, target) * skillWeight;
+        if (collabPenalty != 0 && hasCollaborated(source, target)) score -= collabPenalty;
+        if (inDifferentCommunities(source, target)) score += communityBonus;
+        return score;
+    }
+
+    // Top-max candidates by score using fixed-size arrays instead of a map of all scores
+    public List<String> recommendPartners(int source, int max, int majorWeight, int skillWeight, int collabPenalty,
+                                          int communityBonus) {
+        return recommendPartners(source, max, majorWeight, skillWeight, collabPenalty, communityBonus, null);
+    }
+
+    // Same, but the collaboration penalty for each candidate id is penalties[id], e.g. from
+    // decayed CollaborationHistory weights, instead of collabPenalty for every stored partner
+    public List<String> recommendPartners(int source, int max, int majorWeight, int skillWeight, int communityBonus,
+                                          int[] penalties) {
+        return recommendPartners(source, max, majorWeight, skillWeight, 0, communityBonus, penalties);
+    }
+
+    private List<String> recommendPartners(int source, int max, int majorWeight, int skillWeight, int collabPenalty,
+                                           int communityBonus, int[] penalties) {
+        if (max <= 0) return Collections.emptyList();
+        int[] bestIds = new int[max];
+        int[] bestScores = new int[max];
+        int found = 0;
+        for (int candidate = 0; candidate < studentCount; candidate++) {
+            if (candidate == source || !isPresent(candidate)) continue;
+            int score = score(source, candidate, majorWeight, skillWeight, collabPenalty, communityBonus);
+            if (penalties != null) score -= penalties[candidate];
+            if (found == max && score <= bestScores[max - 1]) continue;
+            int i = found < max ? found++ : max - 1;
+            while (i > 0 && bestScores[i - 1] < score) {
+                bestScores[i] = bestScores[i - 1];
+                bestIds[i] = bestIds[i - 1];
+                i--;
+            }
+            bestScores[i] = score;
+            bestIds[i] = candidate;
+        }
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(names.get(bestIds[i]));
+        }
+        return result;
+    }
+
+    // Read-only Map views so existing callers (GUI, exporter) keep working. Keys are
+    // decoded one at a time as they are iterated and size() is O(1); only get() and
+    // entry values materialize a short-lived Student or partner list
+    public Map<String, Student> asStudentMap() {
+        return new RosterView<>() {
+            @Override
+            Student valueOf(int id) {
+                return toStudent(id);
+            }
+        };
+    }
+
+    public Map<String, List<String>> asCollaborationMap() {
+        return new RosterView<>() {
+            @Override
+            List<String> valueOf(int id) {
+                return partners(id);
+            }
+        };
+    }
+
+    private abstract class RosterView<V> extends AbstractMap<String, V> {
+        abstract V valueOf(int id);
+
+        @Override
+        public V get(Object key) {
+            int id = key instanceof String ? indexOf((String) key) : -1;
+            return id < 0 ? null : valueOf(id);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexOf((String) key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return presentCount;
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<String> iterator() {
+                    PresentIds ids = new PresentIds();
+                    return new Iterator<>() {
+                        public boolean hasNext() {
+                            return ids.hasNext();
+                        }
+
+                        public String next() {
+                            return name(ids.nextId());
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public int size() {
+                    return presentCount;
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    PresentIds ids = new PresentIds();
+                    return new Iterator<>() {
+                        public boolean hasNext() {
+                            return ids.hasNext();
+                        }
+
+                        public Entry<String, V> next() {
+                            int id = ids.nextId();
+                            return new SimpleImmutableEntry<>(name(id), valueOf(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return presentCount;
+                }
+            };
+        }
+    }
+
+    // Walks present student ids without collecting them
+    private class PresentIds {
+        private int next = advance(0);
+
+        boolean hasNext() {
+            return next < studentCount;
+        }
+
+        int nextId() {
+            if (next >= studentCount) throw new NoSuchElementException();
+            int id = next;
+            next = advance(id + 1);
+            return id;
+        }
+
+        private int advance(int from) {
+            while (from < studentCount && !isPresent(from)) from++;
+            return from;
+        }
+    }
+
+    private Student toStudent(int id) {
+        Map<String, Integer> skills = new HashMap<>();
+        for (int i = 0; i < skillNames.length; i++) {
+            skills.put(skillNames[i], skill(id, i));
+        }
+        return new Student(name(id), major(id), skills);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (bytes <= buffer.capacity()) return buffer;
+        ByteBuffer bigger = allocate(Math.max(bytes, buffer.capacity() * 2));
+        buffer.clear();
+        bigger.put(buffer);
+        bigger.clear();
+        return bigger;
+    }
+
+    // Interned UTF-8 strings in one off-heap byte buffer, with an open-addressing
+    // hash index (also off-heap) from string to id
+    private static class StringTable {
+        private ByteBuffer bytes = allocate(4096);
+        private ByteBuffer offsets = allocate(1024); // int per string + 1
+        private ByteBuffer slots = allocate(1024);   // id + 1 per slot, 0 when empty
+        private int byteLength;
+        private int count;
+
+        int size() {
+            return count;
+        }
+
+        int find(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int slot = locate(encoded, hash(encoded));
+            return slots.getInt(slot * 4) - 1;
+        }
+
+        int intern(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int slot = locate(encoded, hash(encoded));
+            int existing = slots.getInt(slot * 4);
+            if (existing != 0) return existing - 1;
+
+            bytes = ensure(bytes, byteLength + encoded.length);
+            bytes.position(byteLength);
+            bytes.put(encoded);
+            bytes.clear();
+            byteLength += encoded.length;
+            offsets = ensure(offsets, (count + 2) * 4);
+            offsets.putInt((count + 1) * 4, byteLength);
+            slots.putInt(slot * 4, count + 1);
+            int id = count++;
+            if (count * 2 > slotCount()) rehash();
+            return id;
+        }
+
+        String get(int id) {
+            int start = offsets.getInt(id * 4);
+            byte[] encoded = new byte[offsets.getInt((id + 1) * 4) - start];
+            bytes.get(start, encoded);
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        private int slotCount() {
+            return slots.capacity() / 4;
+        }
+
+        // Slot holding value, or the empty slot where it would be inserted
+        private int locate(byte[] encoded, int hash) {
+            int mask = slotCount() - 1;
+            int slot = hash & mask;
+            while (true) {
+                int entry = slots.getInt(slot * 4);
+                if (entry == 0 || matches(entry - 1, encoded)) return slot;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private boolean matches(int id, byte[] encoded) {
+            int start = offsets.getInt(id * 4);
+            if (offsets.getInt((id + 1) * 4) - start != encoded.length) return false;
+            for (int i = 0; i < encoded.length; i++) {
+                if (bytes.get(start + i) != encoded[i]) return false;
+            }
+            return true;
+        }
+
+        private void rehash() {
+            slots = allocate(slots.capacity() * 2);
+            int mask = slotCount() - 1;
+            for (int id = 0; id < count; id++) {
+                int start = offsets.getInt(id * 4);
+                int end = offsets.getInt((id + 1) * 4);
+                int h = 0x811c9dc5;
+                for (int i = start; i < end; i++) {
+                    h = (h ^ (bytes.get(i) & 0xff)) * 0x01000193;
+                }
+                int slot = h & mask;
+                while (slots.getInt(slot * 4) != 0) slot = (slot + 1) & mask;
+                slots.putInt(slot * 4, id + 1);
+            }
+        }
+
+        // FNV-1a, matching the loop in rehash()
+        private static int hash(byte[] encoded) {
+            int h = 0x811c9dc5;
+            for (byte b : encoded) {
+                h = (h ^ (b & 0xff)) * 0x01000193;
+            }
+            return h;
+        }
+    }
+}
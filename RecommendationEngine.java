@@ -3,6 +3,24 @@ import java.util.*;
 public class RecommendationEngine {
     private Map<String, Student> students;
     private Map<String, List<String>> collaborations;
+    private Map<String, Integer> communities = Collections.emptyMap();
+    private OffHeapRoster roster;
+    // Written by whichever thread ingests a new term, read by every scoring thread
+    private volatile CollaborationHistory history;
+    // For the off-heap path with a history: roster id per history id, and per-thread
+    // penalties by candidate id, all zero between queries
+    private volatile RosterIds rosterIds;
+    private final ThreadLocal<int[]> penaltyScratch = ThreadLocal.withInitial(() -> new int[roster.size()]);
+
+    private static class RosterIds {
+        final CollaborationHistory.Edges edges;
+        final int[] ids;
+
+        RosterIds(CollaborationHistory.Edges edges, int[] ids) {
+            this.edges = edges;
+            this.ids = ids;
+        }
+    }
 
     public RecommendationEngine(Map<String, Student> students,
                                  Map<String, List<String>> collaborations) {
@@ -10,6 +28,12 @@ public class RecommendationEngine {
         this.collaborations = collaborations;
     }
 
+    // Scores straight from off-heap storage; the maps are read-only views over it
+    public RecommendationEngine(OffHeapRoster roster) {
+        this(roster.asStudentMap(), roster.asCollaborationMap());
+        this.roster = roster;
+    }
+
     public List<String> recommendPartners(String studentName, int maxRecommendations) {
         Student target = students.get(studentName);
         if (target == null) return Collections.emptyList();
@@ -38,10 +62,7 @@ public class RecommendationEngine {
             }
 
             // Collaboration penalty
-            List<String> prevPartners = collaborations.getOrDefault(studentName, new ArrayList<>());
-            if (prevPartners.contains(candidateName)) {
-                score -= 5; // penalize reuse
-            }
+            score -= collaborationPenalty(studentName, candidateName, 5); // penalize reuse
 
             scores.put(candidateName, score);
         }
@@ -55,6 +76,39 @@ public class RecommendationEngine {
     }
 
     public List<String> recommendPartners(String studentName, int max, int majorWeight, int skillWeight, int collabPenalty) {
+        return recommendPartners(studentName, max, majorWeight, skillWeight, collabPenalty, 0);
+    }
+
+    public List<String> recommendPartners(String studentName, int max, int majorWeight, int skillWeight, int collabPenalty,
+                                          int communityBonus) {
+        if (roster != null) {
+            int id = roster.indexOf(studentName);
+            if (id < 0) return Collections.emptyList();
+            if (history == null) {
+                return roster.recommendPartners(id, max, majorWeight, skillWeight, collabPenalty, communityBonus);
+            }
+            // Only this student's past partners carry a penalty: fill just their slots of the
+            // thread's penalty array for this query and clear them afterwards
+            CollaborationHistory.Edges edges = history.edges();
+            int[] toRoster = rosterIdsFor(edges);
+            int source = history.idOf(studentName);
+            int start = edges.rowStart(source);
+            int end = edges.rowEnd(source);
+            int[] penalties = penaltyScratch.get();
+            for (int e = start; e < end; e++) {
+                int partner = toRoster[edges.target(e)];
+                if (partner >= 0) penalties[partner] = (int) Math.round(edges.weight(e) * collabPenalty);
+            }
+            try {
+                return roster.recommendPartners(id, max, majorWeight, skillWeight, communityBonus, penalties);
+            } finally {
+                for (int e = start; e < end; e++) {
+                    int partner = toRoster[edges.target(e)];
+                    if (partner >= 0) penalties[partner] = 0;
+                }
+            }
+        }
+
         Student target = students.get(studentName);
         if (target == null) return Collections.emptyList();
     
@@ -66,18 +120,12 @@ public class RecommendationEngine {
             Student candidate = students.get(candidateName);
             int score = 0;
     
-            if (candidate.getMajor().equalsIgnoreCase(target.getMajor())) {
-                score += majorWeight;
-            }
-    
-            for (String skill : target.getSkills().keySet()) {
-                int delta = candidate.getSkill(skill) - target.getSkill(skill);
-                if (delta > 0) score += delta * skillWeight;
-            }
-    
-            List<String> pastPartners = collaborations.getOrDefault(studentName, new ArrayList<>());
-            if (pastPartners.contains(candidateName)) {
-                score -= collabPenalty;
+            if (sharesMajor(target, candidate)) score += majorWeight;
+            score += skillSurplus(target, candidate) * skillWeight;
+            score -= collaborationPenalty(studentName, candidateName, collabPenalty);
+
+            if (inDifferentCommunities(studentName, candidateName)) {
+                score += communityBonus;
             }
     
             scores.put(candidateName, score);
@@ -90,33 +138,160 @@ public class RecommendationEngine {
                 .toList();
     }
 
+    // Rebuilt once per history version, not per query
+    private int[] rosterIdsFor(CollaborationHistory.Edges edges) {
+        RosterIds cached = rosterIds;
+        if (cached != null && cached.edges == edges) return cached.ids;
+        int[] ids = new int[edges.nameCount()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = roster.indexOf(edges.name(i));
+        }
+        rosterIds = new RosterIds(edges, ids);
+        return ids;
+    }
+
     public int computeScore(String source, String target, int majorWeight, int skillWeight, int collabPenalty) {
+        return computeScore(source, target, majorWeight, skillWeight, collabPenalty, 0);
+    }
+
+    public int computeScore(String source, String target, int majorWeight, int skillWeight, int collabPenalty,
+                            int communityBonus) {
         if (!students.containsKey(source) || !students.containsKey(target)) return 0;
         if (source.equals(target)) return 0;
+
+        if (roster != null) {
+            return roster.score(roster.indexOf(source), roster.indexOf(target),
+                    majorWeight, skillWeight, 0, communityBonus) - collaborationPenalty(source, target, collabPenalty);
+        }
     
-        Student a = students.get(source);
-        Student b = students.get(target);
         int score = 0;
+        if (sharesMajor(source, target)) score += majorWeight;
+        score += skillSurplus(source, target) * skillWeight;
+        score -= collaborationPenalty(source, target, collabPenalty);
+        if (inDifferentCommunities(source, target)) score += communityBonus;
     
-        if (a.getMajor().equalsIgnoreCase(b.getMajor())) {
-            score += majorWeight;
+        return score;
+    }
+
+    // Score components, each independent of the slider weights
+
+    public boolean sharesMajor(String source, String target) {
+        if (roster != null) return roster.sharesMajor(roster.indexOf(source), roster.indexOf(target));
+        return sharesMajor(students.get(source), students.get(target));
+    }
+
+    private static boolean sharesMajor(Student source, Student target) {
+        return source.getMajor().equalsIgnoreCase(target.getMajor());
+    }
+
+    // Sum of the skill levels by which target exceeds source
+    public int skillSurplus(String source, String target) {
+        if (roster != null) return roster.skillSurplus(roster.indexOf(source), roster.indexOf(target));
+        return skillSurplus(students.get(source), students.get(target));
+    }
+
+    private static int skillSurplus(Student source, Student target) {
+        int surplus = 0;
+        for (String skill : source.getSkills().keySet()) {
+            int delta = target.getSkill(skill) - source.getSkill(skill);
+            if (delta > 0) surplus += delta;
         }
-    
-        for (String skill : a.getSkills().keySet()) {
-            int delta = b.getSkill(skill) - a.getSkill(skill);
-            if (delta > 0) score += delta * skillWeight;
+        return surplus;
+    }
+
+    public boolean hasCollaborated(String source, String target) {
+        if (history != null) return history.contains(source, target);
+        if (roster != null) return roster.hasCollaborated(roster.indexOf(source), roster.indexOf(target));
+        return collaborations.getOrDefault(source, Collections.emptyList()).contains(target);
+    }
+
+    // 1 per past collaboration in flat mode; with a history, the pair's decayed weight,
+    // so last term's partner counts fully and older ones fade
+    public double collaborationWeight(String source, String target) {
+        if (history != null) return history.weight(source, target);
+        return hasCollaborated(source, target) ? 1 : 0;
+    }
+
+    public int collaborationPenalty(String source, String target, int collabPenalty) {
+        return (int) Math.round(collaborationWeight(source, target) * collabPenalty);
+    }
+
+    // Every past partner of source with its collaborationWeight, e.g. to send along with
+    // a query to shard workers that do not hold source's history
+    public Map<String, Double> collaborationWeights(String source) {
+        if (history != null) return history.partners(source);
+        Map<String, Double> weights = new HashMap<>();
+        for (String partner : collaborations.getOrDefault(source, Collections.emptyList())) {
+            weights.put(partner, 1.0);
         }
-    
-        List<String> prev = collaborations.getOrDefault(source, new ArrayList<>());
-        if (prev.contains(target)) score -= collabPenalty;
-    
-        return score;
+        return weights;
+    }
+
+    // Top candidates from this engine's roster for a profile that need not be part of it,
+    // e.g. a query forwarded to one shard of a partitioned roster; best score first.
+    // pastPartners maps each of the profile's past partners to its collaborationWeight.
+    public List<Map.Entry<String, Integer>> scoreCandidates(Student profile, Map<String, Double> pastPartners, int max,
+                                                             int majorWeight, int skillWeight, int collabPenalty) {
+        PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Student candidate : students.values()) {
+            if (candidate.getName().equals(profile.getName())) continue;
+            int score = 0;
+            if (sharesMajor(profile, candidate)) score += majorWeight;
+            score += skillSurplus(profile, candidate) * skillWeight;
+            Double weight = pastPartners.get(candidate.getName());
+            if (weight != null) score -= (int) Math.round(weight * collabPenalty);
+
+            if (best.size() < max) {
+                best.add(Map.entry(candidate.getName(), score));
+            } else if (max > 0 && score > best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(candidate.getName(), score));
+            }
+        }
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(best);
+        result.sort((a, b) -> b.getValue() - a.getValue());
+        return result;
+    }
+
+    public Map<String, Student> getStudents() {
+        return students;
+    }
+
+    // The off-heap storage behind this engine, or null when it scores heap maps
+    public OffHeapRoster getOffHeapRoster() {
+        return roster;
     }
 
     public Map<String, List<String>> getCollaborations() {
         return collaborations;
     }
 
+    // Decayed, term-weighted history used for the collaboration penalty instead of the 0/1 flag
+    public void setCollaborationHistory(CollaborationHistory history) {
+        this.history = history;
+    }
+
+    public CollaborationHistory getCollaborationHistory() {
+        return history;
+    }
+
+    // Community ids from CommunityDetector; pairing across communities earns the diversity bonus
+    public void setCommunities(Map<String, Integer> communities) {
+        this.communities = communities;
+        if (roster != null) roster.setCommunities(communities);
+    }
+
+    public Map<String, Integer> getCommunities() {
+        return communities;
+    }
+
+    public boolean inDifferentCommunities(String a, String b) {
+        if (roster != null) return roster.inDifferentCommunities(roster.indexOf(a), roster.indexOf(b));
+        Integer ca = communities.get(a);
+        Integer cb = communities.get(b);
+        return ca != null && cb != null && !ca.equals(cb);
+    }
+
     // Optional: simulate check for existing teams
     private boolean isInTeam(String name) {
         // Placeholder for integration with future team roster
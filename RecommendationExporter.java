@@ -0,0 +1,250 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Writes the top-K recommendations and score breakdown for every student to a CSV
+// file and, optionally, a compact columnar binary file. Students are processed in
+// fixed-size chunks (in parallel within a chunk) and each chunk is flushed before
+// the next starts, so memory stays bounded by the chunk size. After every chunk a
+// "<csv>.progress" checkpoint is written; rerunning with the same settings truncates
+// any partial chunk and continues from there.
+//
+// Binary layout (big-endian, DataOutputStream):
+//   "RECS" int version, int topK, int nameCount, nameCount x UTF name
+//   then per chunk: int rows, followed by one column at a time:
+//   int student[rows], short rank[rows], int partner[rows], int score[rows],
+//   int major[rows], int skill[rows], int collab[rows], int community[rows]
+// Student and partner columns index into the name table: the roster sorted by name,
+// or, for an off-heap roster, its own ids (names of ids without a profile included),
+// so no copy of the names is kept on the heap.
+public class RecommendationExporter {
+    private static final int BINARY_VERSION = 2;
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final RecommendationEngine engine;
+    private final OffHeapRoster offHeap;
+    private final String[] roster;
+    private final Map<String, Integer> rosterIndex = new HashMap<>();
+    private final int topK;
+    private final int majorWeight;
+    private final int skillWeight;
+    private final int collabPenalty;
+    private final int communityBonus;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    public RecommendationExporter(RecommendationEngine engine, int topK, int majorWeight, int skillWeight,
+                                  int collabPenalty, int communityBonus) {
+        // Ranks are stored as a short in the binary file
+        if (topK < 1 || topK > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("topK must be between 1 and " + Short.MAX_VALUE + ": " + topK);
+        }
+        this.engine = engine;
+        this.offHeap = engine.getOffHeapRoster();
+        if (offHeap == null) {
+            this.roster = engine.getStudents().keySet().stream().sorted().toArray(String[]::new);
+            for (int i = 0; i < roster.length; i++) {
+                rosterIndex.put(roster[i], i);
+            }
+        } else {
+            this.roster = null;
+        }
+        this.topK = topK;
+        this.majorWeight = majorWeight;
+        this.skillWeight = skillWeight;
+        this.collabPenalty = collabPenalty;
+        this.communityBonus = communityBonus;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // binaryPath may be null to skip the binary output
+    public void export(String csvPath, String binaryPath) throws IOException {
+        Path progressPath = Paths.get(csvPath + ".progress");
+        Properties progress = loadProgress(progressPath, binaryPath);
+        int next = Integer.parseInt(progress.getProperty("nextStudent", "0"));
+        long csvBytes = Long.parseLong(progress.getProperty("csvBytes", "0"));
+        long binaryBytes = Long.parseLong(progress.getProperty("binaryBytes", "0"));
+
+        try (FileOutputStream csvFile = openTruncated(csvPath, csvBytes);
+             FileOutputStream binaryFile = binaryPath == null ? null : openTruncated(binaryPath, binaryBytes)) {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(csvFile, StandardCharsets.UTF_8), 64 * 1024);
+            DataOutputStream binary = binaryFile == null ? null
+                    : new DataOutputStream(new BufferedOutputStream(binaryFile, 64 * 1024));
+
+            if (next == 0) {
+                csv.write("Student,Rank,Partner,Score,Major,Skill,Collaboration,Community\n");
+                if (binary != null) writeBinaryHeader(binary);
+            }
+
+            while (next < rosterSize()) {
+                int end = Math.min(next + chunkSize, rosterSize());
+                List<Row> rows = computeChunk(next, end);
+                writeCsv(csv, rows);
+                csv.flush();
+                if (binary != null) {
+                    writeBinaryChunk(binary, rows);
+                    binary.flush();
+                }
+                next = end;
+                progress.setProperty("nextStudent", String.valueOf(next));
+                progress.setProperty("csvBytes", String.valueOf(csvFile.getChannel().position()));
+                if (binaryFile != null) {
+                    progress.setProperty("binaryBytes", String.valueOf(binaryFile.getChannel().position()));
+                }
+                saveProgress(progressPath, progress);
+            }
+        }
+        Files.deleteIfExists(progressPath);
+    }
+
+    private List<Row> computeChunk(int start, int end) {
+        return IntStream.range(start, end)
+                .parallel()
+                .mapToObj(this::rowsFor)
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private int rosterSize() {
+        return offHeap != null ? offHeap.size() : roster.length;
+    }
+
+    private String nameAt(int index) {
+        return offHeap != null ? offHeap.name(index) : roster[index];
+    }
+
+    private int indexOf(String name) {
+        return offHeap != null ? offHeap.indexOf(name) : rosterIndex.get(name);
+    }
+
+    private List<Row> rowsFor(int student) {
+        // Off-heap ids include names seen only in the collaboration file
+        if (offHeap != null && !offHeap.isPresent(student)) return Collections.emptyList();
+        String name = nameAt(student);
+        List<String> partners = engine.recommendPartners(name, topK, majorWeight, skillWeight, collabPenalty,
+                communityBonus);
+        List<Row> rows = new ArrayList<>(partners.size());
+        for (int rank = 0; rank < partners.size(); rank++) {
+            String partner = partners.get(rank);
+            Row row = new Row();
+            row.student = student;
+            row.rank = rank + 1;
+            row.partner = indexOf(partner);
+            row.major = engine.sharesMajor(name, partner) ? majorWeight : 0;
+            row.skill = engine.skillSurplus(name, partner) * skillWeight;
+            row.collab = -engine.collaborationPenalty(name, partner, collabPenalty);
+            row.community = engine.inDifferentCommunities(name, partner) ? communityBonus : 0;
+            row.score = row.major + row.skill + row.collab + row.community;
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void writeCsv(Writer csv, List<Row> rows) throws IOException {
+        for (Row row : rows) {
+            csv.write(nameAt(row.student));
+            csv.write(',');
+            csv.write(String.valueOf(row.rank));
+            csv.write(',');
+            csv.write(nameAt(row.partner));
+            csv.write(',' + String.valueOf(row.score) + ',' + row.major + ',' + row.skill
+                    + ',' + row.collab + ',' + row.community + '\n');
+        }
+    }
+
+    private void writeBinaryHeader(DataOutputStream out) throws IOException {
+        out.writeBytes("RECS");
+        out.writeInt(BINARY_VERSION);
+        out.writeInt(topK);
+        out.writeInt(rosterSize());
+        for (int i = 0; i < rosterSize(); i++) {
+            out.writeUTF(nameAt(i));
+        }
+    }
+
+    private void writeBinaryChunk(DataOutputStream out, List<Row> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (Row row : rows) out.writeInt(row.student);
+        for (Row row : rows) out.writeShort(row.rank);
+        for (Row row : rows) out.writeInt(row.partner);
+        for (Row row : rows) out.writeInt(row.score);
+        for (Row row : rows) out.writeInt(row.major);
+        for (Row row : rows) out.writeInt(row.skill);
+        for (Row row : rows) out.writeInt(row.collab);
+        for (Row row : rows) out.writeInt(row.community);
+    }
+
+    private Properties loadProgress(Path path, String binaryPath) throws IOException {
+        Properties expected = new Properties();
+        expected.setProperty("settings", settingsKey(binaryPath));
+        if (!Files.exists(path)) return expected;
+
+        Properties saved = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            saved.load(reader);
+        }
+        if (!expected.getProperty("settings").equals(saved.getProperty("settings"))) {
+            throw new IOException("Export settings changed since the interrupted run; delete " + path + " to start over");
+        }
+        return saved;
+    }
+
+    private String settingsKey(String binaryPath) {
+        return BINARY_VERSION + ":" + (offHeap != null) + ":" + rosterSize() + ":" + topK + ":" + majorWeight + ":"
+                + skillWeight + ":" + collabPenalty + ":" + communityBonus + ":" + chunkSize + ":" + (binaryPath != null);
+    }
+
+    // Write to a temp file and rename so a crash never leaves a half-written checkpoint
+    private static void saveProgress(Path path, Properties progress) throws IOException {
+        Path temp = Paths.get(path + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            progress.store(writer, "RecommendationExporter checkpoint");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileOutputStream openTruncated(String path, long length) throws IOException {
+        FileOutputStream out = new FileOutputStream(path, length > 0);
+        out.getChannel().truncate(length);
+        return out;
+    }
+
+    private static class Row {
+        int student;
+        int rank;
+        int partner;
+        int score;
+        int major;
+        int skill;
+        int collab;
+        int community;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // --off-heap keeps the roster in OffHeapRoster instead of heap maps, for very large classes
+        boolean offHeap = Arrays.asList(args).contains("--off-heap");
+        args = Arrays.stream(args).filter(arg -> !arg.equals("--off-heap")).toArray(String[]::new);
+        if (args.length < 4) {
+            System.err.println("Usage: java RecommendationExporter [--off-heap] <students.csv> <skills.csv> "
+                    + "<collaborations.csv> <out.csv> [out.bin] [topK]");
+            System.exit(1);
+        }
+        RecommendationEngine engine;
+        if (offHeap) {
+            engine = new RecommendationEngine(OffHeapRoster.load(args[0], args[1], args[2]));
+            engine.setCollaborationHistory(StudentDataLoader.loadCollaborationHistory(args[2]));
+        } else {
+            StudentDataLoader loader = new StudentDataLoader(args[0], args[1], args[2]);
+            engine = new RecommendationEngine(loader.getStudents(), loader.getCollaborations());
+            engine.setCollaborationHistory(loader.getCollaborationHistory());
+        }
+        int topK = args.length > 5 ? Integer.parseInt(args[5]) : 5;
+        // Same defaults as the sliders in StudentViewGUI
+        new RecommendationExporter(engine, topK, 3, 3, 2, 0).export(args[3], args.length > 4 ? args[4] : null);
+        System.out.println("Exported recommendations to " + args[3]);
+    }
+}
@@ -0,0 +1,520 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+// Durable, editable roster. Every mutation is applied in memory and appended to a
+// write-ahead log; a background thread batches pending records into one write and
+// one fsync (group commit), and the future returned by each mutation completes once
+// its record is on disk. Periodically the state is written to a snapshot and older
+// log segments are deleted, so startup loads the newest snapshot and replays only
+// the changes made after it. Recovery stops at the first corrupt record or gap in
+// the sequence numbers. A failed log write fails the store: memory may then be ahead
+// of disk, so further changes are refused and reopening restores the durable state.
+//
+// Directory layout: snapshot-<seq>.bin holds the state after change <seq>;
+// wal-<seq>.log holds changes starting at <seq>. Log record:
+//   int length, int crc32(payload), payload = long seq, byte type, UTF fields...
+public class RosterStore implements Closeable {
+    private static final int DEFAULT_COMPACT_EVERY = 100_000;
+    private static final int MAX_BATCH = 4096;
+    private static final int SNAPSHOT_MAGIC = 0x524f5354; // "ROST"
+
+    private static final byte PUT_STUDENT = 1;
+    private static final byte REMOVE_STUDENT = 2;
+    private static final byte SET_SKILL = 3;
+    private static final byte ADD_COLLABORATION = 4;
+    private static final byte REMOVE_COLLABORATION = 5;
+
+    private final Path directory;
+    // Students and partner lists are replaced, never mutated, so readers and
+    // snapshots can share them without copying
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> collaborations = new ConcurrentHashMap<>();
+    private final BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> daemon(r, "roster-compactor"));
+    private final Thread flusher;
+    private final Object lock = new Object();
+    private FileChannel log;
+    private long lastSeq;
+    private long snapshotSeq;
+    private int compactEvery = DEFAULT_COMPACT_EVERY;
+    private boolean compactionScheduled;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private static class Pending {
+        final byte[] record;
+        final FileChannel segment;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(byte[] record, FileChannel segment) {
+            this.record = record;
+            this.segment = segment;
+        }
+    }
+
+    private RosterStore(Path directory) {
+        this.directory = directory;
+        this.flusher = daemon(this::flushLoop, "roster-wal");
+    }
+
+    // Loads the newest snapshot, replays the log tail and starts a fresh log segment
+    public static RosterStore open(String directory) throws IOException {
+        RosterStore store = new RosterStore(Paths.get(directory));
+        Files.createDirectories(store.directory);
+        store.recover();
+        store.log = store.openSegment(store.lastSeq + 1);
+        store.flusher.start();
+        return store;
+    }
+
+    // Seeds an empty store from the CSV files, as a first snapshot
+    public void importFrom(StudentDataLoader loader) throws IOException {
+        for (Student student : loader.getStudents().values()) {
+            putStudent(student.getName(), student.getMajor(), student.getSkills());
+        }
+        for (Map.Entry<String, List<String>> entry : loader.getCollaborations().entrySet()) {
+            for (String partner : entry.getValue()) {
+                addCollaboration(entry.getKey(), partner);
+            }
+        }
+        compact();
+    }
+
+    public Map<String, Student> getStudents() {
+        return students;
+    }
+
+    public Map<String, List<String>> getCollaborations() {
+        return collaborations;
+    }
+
+    public void setCompactEvery(int compactEvery) {
+        this.compactEvery = Math.max(1, compactEvery);
+    }
+
+    public CompletableFuture<Void> putStudent(String name, String major, Map<String, Integer> skills) {
+        List<String> fields = new ArrayList<>(List.of(name, major));
+        for (Map.Entry<String, Integer> skill : skills.entrySet()) {
+            fields.add(skill.getKey());
+            fields.add(String.valueOf(skill.getValue()));
+        }
+        return append(PUT_STUDENT, fields.toArray(new String[0]));
+    }
+
+    public CompletableFuture<Void> removeStudent(String name) {
+        return append(REMOVE_STUDENT, name);
+    }
+
+    public CompletableFuture<Void> setSkill(String name, String skill, int level) {
+        return append(SET_SKILL, name, skill, String.valueOf(level));
+    }
+
+    public CompletableFuture<Void> addCollaboration(String name, String partner) {
+        return append(ADD_COLLABORATION, name, partner);
+    }
+
+    public CompletableFuture<Void> removeCollaboration(String name, String partner) {
+        return append(REMOVE_COLLABORATION, name, partner);
+    }
+
+    private CompletableFuture<Void> append(byte type, String... fields) {
+        // Anything that can fail happens before a sequence number is taken: a change that
+        // cannot be logged must neither reach memory nor leave a gap that stops recovery
+        validate(type, fields);
+        byte[] body = encode(type, fields);
+        Pending entry;
+        boolean compactNow;
+        synchronized (lock) {
+            // Checked under the lock that close() and the flusher take, so nothing is
+            // enqueued after the flusher has drained for the last time
+            checkWritable();
+            long seq = ++lastSeq;
+            apply(type, fields);
+            entry = new Pending(record(seq, body), log);
+            // Enqueue under the lock so the log order matches the order changes were applied
+            pending.add(entry);
+            compactNow = !compactionScheduled && seq - snapshotSeq >= compactEvery;
+            if (compactNow) compactionScheduled = true;
+        }
+        if (compactNow) {
+            try {
+                compactor.execute(() -> {
+                    try {
+                        compact();
+                    } catch (IOException e) {
+                        System.err.println("Roster compaction failed: " + e.getMessage());
+                    } finally {
+                        synchronized (lock) {
+                            compactionScheduled = false;
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Closing; the log alone still recovers everything
+            }
+        }
+        return entry.done;
+    }
+
+    private void checkWritable() {
+        if (failure != null) throw new IllegalStateException("RosterStore failed after a log write error", failure);
+        if (closed) throw new IllegalStateException("RosterStore is closed");
+    }
+
+    // Numeric fields must parse, so apply cannot throw once the change is logged
+    private static void validate(byte type, String[] fields) {
+        if (type == PUT_STUDENT) {
+            for (int i = 3; i < fields.length; i += 2) {
+                Integer.parseInt(fields[i]);
+            }
+        } else if (type == SET_SKILL) {
+            Integer.parseInt(fields[2]);
+        }
+    }
+
+    private void apply(byte type, String[] fields) {
+        switch (type) {
+            case PUT_STUDENT -> {
+                Map<String, Integer> skills = new HashMap<>();
+                for (int i = 2; i + 1 < fields.length; i += 2) {
+                    skills.put(fields[i], Integer.parseInt(fields[i + 1]));
+                }
+                students.put(fields[0], new Student(fields[0], fields[1], skills));
+            }
+            case REMOVE_STUDENT -> {
+                students.remove(fields[0]);
+                collaborations.remove(fields[0]);
+            }
+            case SET_SKILL -> {
+                Student current = students.get(fields[0]);
+                if (current != null) {
+                    Map<String, Integer> skills = new HashMap<>(current.getSkills());
+                    skills.put(fields[1], Integer.parseInt(fields[2]));
+                    students.put(fields[0], new Student(current.getName(), current.getMajor(), skills));
+                }
+            }
+            case ADD_COLLABORATION -> {
+                List<String> partners = new ArrayList<>(collaborations.getOrDefault(fields[0], List.of()));
+                if (!partners.contains(fields[1])) partners.add(fields[1]);
+                collaborations.put(fields[0], Collections.unmodifiableList(partners));
+            }
+            case REMOVE_COLLABORATION -> {
+                List<String> partners = new ArrayList<>(collaborations.getOrDefault(fields[0], List.of()));
+                partners.remove(fields[1]);
+                collaborations.put(fields[0], Collections.unmodifiableList(partners));
+            }
+            default -> throw new IllegalArgumentException("Unknown change type " + type);
+        }
+    }
+
+    // The payload after the sequence number; throws for fields that cannot be stored
+    private static byte[] encode(byte type, String[] fields) {
+        if (fields.length > Short.MAX_VALUE) throw new IllegalArgumentException("Too many fields: " + fields.length);
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeByte(type);
+            out.writeShort(fields.length);
+            for (String field : fields) {
+                out.writeUTF(field);
+            }
+            return payload.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] record(long seq, byte[] body) {
+        ByteBuffer payload = ByteBuffer.allocate(8 + body.length);
+        payload.putLong(seq).put(body);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.capacity());
+        record.putInt(payload.capacity()).putInt((int) crc.getValue()).put(payload.array());
+        return record.array();
+    }
+
+    // Group commit: drain whatever queued up while the last fsync ran and write it in one go
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !pending.isEmpty()) {
+            try {
+                Pending first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                pending.drainTo(batch, MAX_BATCH - 1);
+                if (failure != null) throw failure;
+                writeBatch(batch);
+                for (Pending entry : batch) entry.done.complete(null);
+            } catch (IOException e) {
+                // Never write a record after one that failed: fail the store, this batch
+                // and everything already queued behind it
+                synchronized (lock) {
+                    if (failure == null) failure = e;
+                    pending.drainTo(batch);
+                }
+                for (Pending entry : batch) entry.done.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private static void writeBatch(List<Pending> batch) throws IOException {
+        // A compaction may roll the segment mid-batch; each record goes to the segment it was assigned
+        FileChannel segment = null;
+        for (Pending entry : batch) {
+            if (entry.segment != segment) {
+                if (segment != null) segment.force(false);
+                segment = entry.segment;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(entry.record);
+            while (buffer.hasRemaining()) segment.write(buffer);
+        }
+        if (segment != null) segment.force(false);
+    }
+
+    // Writes a snapshot of the current state and deletes the log segments it covers
+    public void compact() throws IOException {
+        Map<String, Student> studentCopy;
+        Map<String, List<String>> collaborationCopy;
+        long seq;
+        FileChannel previous;
+        Pending barrier;
+        synchronized (lock) {
+            if (failure != null) throw new IOException("RosterStore failed after a log write error", failure);
+            if (closed) throw new IllegalStateException("RosterStore is closed");
+            seq = lastSeq;
+            if (seq == snapshotSeq) return;
+            studentCopy = new HashMap<>(students);
+            collaborationCopy = new HashMap<>(collaborations);
+            previous = log;
+            log = openSegment(seq + 1);
+            // Completes once every record queued for the old segment is durable
+            barrier = new Pending(new byte[0], previous);
+            pending.add(barrier);
+        }
+
+        Path snapshot = directory.resolve(String.format("snapshot-%020d.bin", seq));
+        Path temp = directory.resolve(snapshot.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            writeSnapshot(out, seq, studentCopy, collaborationCopy);
+            out.flush();
+            file.getFD().sync();
+        }
+        // Publish the snapshot only once the log up to seq is durable; otherwise it could
+        // hold changes whose writes failed
+        try {
+            barrier.done.join();
+        } catch (CompletionException e) {
+            Files.deleteIfExists(temp);
+            throw new IOException("Log write failed before snapshot " + seq, e.getCause());
+        } finally {
+            previous.close();
+        }
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be durable before the segments it replaces are deleted
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+        synchronized (lock) {
+            snapshotSeq = Math.max(snapshotSeq, seq);
+        }
+        for (Path file : listFiles()) {
+            String name = file.getFileName().toString();
+            if ((isSegment(name) && seqOf(name) <= seq)
+                    || (name.startsWith("snapshot-") && name.endsWith(".bin") && seqOf(name) < seq)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream out, long seq, Map<String, Student> students,
+                                      Map<String, List<String>> collaborations) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(seq);
+        out.writeInt(students.size());
+        for (Student student : students.values()) {
+            out.writeUTF(student.getName());
+            out.writeUTF(student.getMajor());
+            out.writeInt(student.getSkills().size());
+            for (Map.Entry<String, Integer> skill : student.getSkills().entrySet()) {
+                out.writeUTF(skill.getKey());
+                out.writeInt(skill.getValue());
+            }
+        }
+        out.writeInt(collaborations.size());
+        for (Map.Entry<String, List<String>> entry : collaborations.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String partner : entry.getValue()) {
+                out.writeUTF(partner);
+            }
+        }
+        out.writeInt(SNAPSHOT_MAGIC); // trailer marks a complete file
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = listFiles();
+
+        // Newest snapshot that reads back completely
+        List<Path> snapshots = files.stream()
+                .filter(f -> f.getFileName().toString().startsWith("snapshot-")
+                        && f.getFileName().toString().endsWith(".bin"))
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        for (Path snapshot : snapshots) {
+            if (readSnapshot(snapshot)) break;
+            students.clear();
+            collaborations.clear();
+        }
+        lastSeq = snapshotSeq;
+
+        List<Path> segments = files.stream()
+                .filter(f -> isSegment(f.getFileName().toString()))
+                .sorted()
+                .toList();
+        boolean intact = true;
+        for (Path segment : segments) {
+            if (intact) {
+                intact = replay(segment);
+            } else {
+                // Changes after a gap or corrupt record cannot be applied in order; keep
+                // them aside for inspection instead of replaying them
+                Files.move(segment, segment.resolveSibling(segment.getFileName() + ".discarded"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static boolean isSegment(String fileName) {
+        return fileName.startsWith("wal-") && fileName.endsWith(".log");
+    }
+
+    private boolean readSnapshot(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) return false;
+            long seq = in.readLong();
+            int studentCount = in.readInt();
+            for (int i = 0; i < studentCount; i++) {
+                String name = in.readUTF();
+                String major = in.readUTF();
+                int skillCount = in.readInt();
+                Map<String, Integer> skills = new HashMap<>();
+                for (int k = 0; k < skillCount; k++) {
+                    skills.put(in.readUTF(), in.readInt());
+                }
+                students.put(name, new Student(name, major, skills));
+            }
+            int collaborationCount = in.readInt();
+            for (int i = 0; i < collaborationCount; i++) {
+                String name = in.readUTF();
+                int partnerCount = in.readInt();
+                List<String> partners = new ArrayList<>(partnerCount);
+                for (int k = 0; k < partnerCount; k++) {
+                    partners.add(in.readUTF());
+                }
+                collaborations.put(name, Collections.unmodifiableList(partners));
+            }
+            if (in.readInt() != SNAPSHOT_MAGIC) return false;
+            snapshotSeq = seq;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Applies records newer than the snapshot; a torn or corrupt record, or a jump in the
+    // sequence numbers, cuts the segment off there. Returns false if replay must stop.
+    private boolean replay(Path segment) throws IOException {
+        long validLength = 0;
+        boolean intact = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 64 * 1024))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    intact = true;
+                    break;
+                }
+                if (length <= 0 || length > (1 << 24)) break;
+                int expectedCrc = in.readInt();
+                byte[] body = new byte[length];
+                in.readFully(body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != expectedCrc) break;
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                long seq = record.readLong();
+                byte type = record.readByte();
+                String[] fields = new String[record.readShort()];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = record.readUTF();
+                }
+                if (seq > lastSeq + 1) break;
+                if (seq > lastSeq) {
+                    apply(type, fields);
+                    lastSeq = seq;
+                }
+                validLength += 8 + length;
+            }
+        } catch (EOFException e) {
+            // Torn final record
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) channel.truncate(validLength);
+        }
+        return intact;
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("wal-%020d.log", firstSeq));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            List<Path> files = new ArrayList<>();
+            stream.forEach(files::add);
+            return files;
+        }
+    }
+
+    private static long seqOf(String fileName) {
+        return Long.parseLong(fileName.replaceAll("\\D", ""));
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Flushes everything still queued, then stops the background threads
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+            synchronized (lock) {
+                closed = true;
+            }
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            log.close();
+        }
+    }
+}
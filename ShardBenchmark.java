@@ -0,0 +1,131 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Starts 1..N local ShardWorker processes over the same roster files, fires a
+// batch of queries through ShardedRecommender at each size and prints throughput
+// and latency. Finally kills one worker to show partial results.
+public class ShardBenchmark {
+    private static final int TIMEOUT_MILLIS = 2000;
+    private static final int CLIENT_THREADS = 8;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: java ShardBenchmark <students.csv> <skills.csv> <collaborations.csv> "
+                    + "[maxShards] [queries]");
+            System.exit(1);
+        }
+        int maxShards = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int queries = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+        StudentDataLoader loader = new StudentDataLoader(args[0], args[1], args[2]);
+        RecommendationEngine local = new RecommendationEngine(loader.getStudents(), loader.getCollaborations());
+        local.setCollaborationHistory(loader.getCollaborationHistory());
+        List<String> names = new ArrayList<>(loader.getStudents().keySet());
+        Random random = new Random(1);
+        List<String> sample = new ArrayList<>();
+        for (int i = 0; i < queries; i++) {
+            sample.add(names.get(random.nextInt(names.size())));
+        }
+
+        System.out.printf("%-8s %-10s %-12s %-12s %-10s %-10s%n", "Shards", "Queries", "Total ms", "Queries/s",
+                "Mean ms", "Partial");
+        for (int shardCount = 1; shardCount <= maxShards; shardCount++) {
+            List<Process> workers = startWorkers(shardCount, args);
+            try (ShardedRecommender recommender = new ShardedRecommender(addresses(workers), TIMEOUT_MILLIS)) {
+                checkAgainstLocal(recommender, local, sample.subList(0, Math.min(5, sample.size())));
+                run(recommender, local, sample, shardCount, false); // warm up the workers' JIT
+                run(recommender, local, sample, shardCount, true);
+
+                if (shardCount == maxShards && shardCount > 1) {
+                    workers.get(0).destroyForcibly().waitFor();
+                    ShardedRecommender.Result result = query(recommender, local, sample.get(0));
+                    System.out.println("After killing one worker: " + result.getAnsweredShards() + "/" + shardCount
+                            + " shards answered, partial=" + result.isPartial() + ", got " + result.getPartners());
+                }
+            } finally {
+                for (Process worker : workers) {
+                    worker.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private static void run(ShardedRecommender recommender, RecommendationEngine local, List<String> sample,
+                            int shardCount, boolean report) throws InterruptedException, ExecutionException {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        List<Future<long[]>> timings = new ArrayList<>();
+        long start = System.nanoTime();
+        for (String name : sample) {
+            timings.add(clients.submit(() -> {
+                long begin = System.nanoTime();
+                ShardedRecommender.Result result = query(recommender, local, name);
+                return new long[] { System.nanoTime() - begin, result.isPartial() ? 1 : 0 };
+            }));
+        }
+        long latency = 0;
+        int partial = 0;
+        for (Future<long[]> timing : timings) {
+            long[] t = timing.get();
+            latency += t[0];
+            partial += (int) t[1];
+        }
+        long total = System.nanoTime() - start;
+        clients.shutdown();
+        if (!report) return;
+
+        System.out.printf("%-8d %-10d %-12.1f %-12.1f %-10.2f %-10d%n", shardCount, sample.size(), total / 1e6,
+                sample.size() / (total / 1e9), latency / 1e6 / sample.size(), partial);
+    }
+
+    // Past partners are weighted by the local engine, decayed when the roster has a history
+    private static ShardedRecommender.Result query(ShardedRecommender recommender, RecommendationEngine local,
+                                                   String name) {
+        Student profile = local.getStudents().get(name);
+        return recommender.recommendPartners(profile, local.collaborationWeights(name), 5, 3, 3, 2);
+    }
+
+    // Merged scores must equal the single-JVM engine's scores (names may differ on ties)
+    private static void checkAgainstLocal(ShardedRecommender recommender, RecommendationEngine local,
+                                          List<String> sample) {
+        for (String name : sample) {
+            List<Integer> expected = local.recommendPartners(name, 5, 3, 3, 2).stream()
+                    .map(partner -> local.computeScore(name, partner, 3, 3, 2))
+                    .toList();
+            List<Integer> actual = query(recommender, local, name).getRecommendations().stream()
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!expected.equals(actual)) {
+                System.out.println("Mismatch for " + name + ": expected " + expected + " got " + actual);
+            }
+        }
+    }
+
+    private static List<Process> startWorkers(int shardCount, String[] files) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+        List<Process> workers = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", classpath, "ShardWorker",
+                    String.valueOf(i), String.valueOf(shardCount), files[0], files[1], files[2]);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            workers.add(builder.start());
+        }
+        return workers;
+    }
+
+    private static List<InetSocketAddress> addresses(List<Process> workers) throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (Process worker : workers) {
+            BufferedReader out = new BufferedReader(new InputStreamReader(worker.getInputStream()));
+            String line = out.readLine();
+            if (line == null || !line.startsWith("READY ")) {
+                throw new IOException("Shard worker failed to start");
+            }
+            addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(line.substring(6).trim())));
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,92 @@
+import java.io.*;
+import java.util.*;
+
+// Wire format between ShardedRecommender and ShardWorker, one query per connection.
+// The query carries the full profile of the student asking and the weight of each
+// past partnership, so a worker only needs to hold its own slice of the roster.
+//
+// Query:  int max, int majorWeight, int skillWeight, int collabPenalty,
+//         UTF name, UTF major, int skillCount, (UTF skill, int level)*,
+//         int pastPartnerCount, (UTF partner, double collaborationWeight)*
+// Reply:  int count, (UTF name, int score)*, best score first
+public class ShardProtocol {
+
+    public static class Query {
+        final Student profile;
+        final Map<String, Double> pastPartners;
+        final int max;
+        final int majorWeight;
+        final int skillWeight;
+        final int collabPenalty;
+
+        public Query(Student profile, Map<String, Double> pastPartners, int max, int majorWeight, int skillWeight,
+                     int collabPenalty) {
+            this.profile = profile;
+            this.pastPartners = pastPartners;
+            this.max = max;
+            this.majorWeight = majorWeight;
+            this.skillWeight = skillWeight;
+            this.collabPenalty = collabPenalty;
+        }
+    }
+
+    public static void writeQuery(DataOutputStream out, Query query) throws IOException {
+        out.writeInt(query.max);
+        out.writeInt(query.majorWeight);
+        out.writeInt(query.skillWeight);
+        out.writeInt(query.collabPenalty);
+        out.writeUTF(query.profile.getName());
+        out.writeUTF(query.profile.getMajor());
+        Map<String, Integer> skills = query.profile.getSkills();
+        out.writeInt(skills.size());
+        for (Map.Entry<String, Integer> skill : skills.entrySet()) {
+            out.writeUTF(skill.getKey());
+            out.writeInt(skill.getValue());
+        }
+        out.writeInt(query.pastPartners.size());
+        for (Map.Entry<String, Double> partner : query.pastPartners.entrySet()) {
+            out.writeUTF(partner.getKey());
+            out.writeDouble(partner.getValue());
+        }
+        out.flush();
+    }
+
+    public static Query readQuery(DataInputStream in) throws IOException {
+        int max = in.readInt();
+        int majorWeight = in.readInt();
+        int skillWeight = in.readInt();
+        int collabPenalty = in.readInt();
+        String name = in.readUTF();
+        String major = in.readUTF();
+        int skillCount = in.readInt();
+        Map<String, Integer> skills = new HashMap<>();
+        for (int i = 0; i < skillCount; i++) {
+            skills.put(in.readUTF(), in.readInt());
+        }
+        int partnerCount = in.readInt();
+        Map<String, Double> pastPartners = new HashMap<>();
+        for (int i = 0; i < partnerCount; i++) {
+            pastPartners.put(in.readUTF(), in.readDouble());
+        }
+        return new Query(new Student(name, major, skills), pastPartners, max, majorWeight, skillWeight,
+                collabPenalty);
+    }
+
+    public static void writeResults(DataOutputStream out, List<Map.Entry<String, Integer>> results) throws IOException {
+        out.writeInt(results.size());
+        for (Map.Entry<String, Integer> result : results) {
+            out.writeUTF(result.getKey());
+            out.writeInt(result.getValue());
+        }
+        out.flush();
+    }
+
+    public static List<Map.Entry<String, Integer>> readResults(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Map.Entry<String, Integer>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(Map.entry(in.readUTF(), in.readInt()));
+        }
+        return results;
+    }
+}
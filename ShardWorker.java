@@ -0,0 +1,67 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// One shard of a partitioned roster, run as its own JVM. It keeps only the
+// students whose name hashes to its shard index and answers ShardProtocol
+// queries on a local socket. Prints "READY <port>" once it is listening.
+public class ShardWorker {
+    private final RecommendationEngine engine;
+    private final ServerSocket server;
+    private final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    public ShardWorker(Map<String, Student> shardStudents, int port) throws IOException {
+        this.engine = new RecommendationEngine(shardStudents, Collections.emptyMap());
+        this.server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+    }
+
+    public static boolean ownsStudent(String name, int shardIndex, int shardCount) {
+        return Math.floorMod(name.hashCode(), shardCount) == shardIndex;
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public void serve() throws IOException {
+        while (true) {
+            Socket socket = server.accept();
+            pool.execute(() -> handle(socket));
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            ShardProtocol.Query query = ShardProtocol.readQuery(in);
+            List<Map.Entry<String, Integer>> results = engine.scoreCandidates(query.profile, query.pastPartners,
+                    query.max, query.majorWeight, query.skillWeight, query.collabPenalty);
+            ShardProtocol.writeResults(out, results);
+        } catch (IOException e) {
+            System.err.println("Shard query failed: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.err.println("Usage: java ShardWorker <shardIndex> <shardCount> <students.csv> <skills.csv> "
+                    + "<collaborations.csv> [port]");
+            System.exit(1);
+        }
+        int shardIndex = Integer.parseInt(args[0]);
+        int shardCount = Integer.parseInt(args[1]);
+        int port = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+        // Other shards' rows are dropped while streaming, so each worker only holds its own share
+        StudentDataLoader loader = new StudentDataLoader(args[2], args[3], args[4],
+                name -> ownsStudent(name, shardIndex, shardCount));
+
+        ShardWorker worker = new ShardWorker(loader.getStudents(), port);
+        System.out.println("READY " + worker.getPort());
+        System.out.flush();
+        worker.serve();
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Scatter-gather front end for a roster split across ShardWorker processes.
+// A query is sent to every shard at once, each shard returns its local top-K,
+// and the lists are merged into the global top-K. Shards that fail or miss the
+// deadline are skipped, and the result says how many answered.
+public class ShardedRecommender implements AutoCloseable {
+    private final List<InetSocketAddress> shards;
+    private final int timeoutMillis;
+    private final ExecutorService pool;
+
+    public ShardedRecommender(List<InetSocketAddress> shards, int timeoutMillis) {
+        this.shards = shards;
+        this.timeoutMillis = timeoutMillis;
+        this.pool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static class Result {
+        private final List<Map.Entry<String, Integer>> recommendations;
+        private final int answeredShards;
+        private final int totalShards;
+
+        Result(List<Map.Entry<String, Integer>> recommendations, int answeredShards, int totalShards) {
+            this.recommendations = recommendations;
+            this.answeredShards = answeredShards;
+            this.totalShards = totalShards;
+        }
+
+        // Partner name and score, best first
+        public List<Map.Entry<String, Integer>> getRecommendations() {
+            return recommendations;
+        }
+
+        public List<String> getPartners() {
+            return recommendations.stream().map(Map.Entry::getKey).toList();
+        }
+
+        public int getAnsweredShards() {
+            return answeredShards;
+        }
+
+        public boolean isPartial() {
+            return answeredShards < totalShards;
+        }
+    }
+
+    // pastPartners maps each past partner to its collaboration weight (1 without a history)
+    public Result recommendPartners(Student profile, Map<String, Double> pastPartners, int max, int majorWeight,
+                                    int skillWeight, int collabPenalty) {
+        ShardProtocol.Query query = new ShardProtocol.Query(profile, pastPartners, max, majorWeight, skillWeight,
+                collabPenalty);
+        List<Future<List<Map.Entry<String, Integer>>>> replies = new ArrayList<>();
+        for (InetSocketAddress shard : shards) {
+            replies.add(pool.submit(() -> ask(shard, query)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Map.Entry<String, Integer>> merged = new ArrayList<>();
+        int answered = 0;
+        for (Future<List<Map.Entry<String, Integer>>> reply : replies) {
+            try {
+                merged.addAll(reply.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                answered++;
+            } catch (TimeoutException | ExecutionException e) {
+                reply.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reply.cancel(true);
+            }
+        }
+
+        merged.sort((a, b) -> b.getValue() - a.getValue());
+        return new Result(merged.subList(0, Math.min(max, merged.size())), answered, shards.size());
+    }
+
+    private List<Map.Entry<String, Integer>> ask(InetSocketAddress shard, ShardProtocol.Query query) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(shard, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            ShardProtocol.writeQuery(out, query);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            return ShardProtocol.readResults(in);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,424 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Pairs up the whole roster so that recommendations are mutual. Each student's
+// preference list is their top-N recommendations (built in parallel) plus everyone
+// who ranked them, and Irving's stable roommates algorithm runs on those truncated
+// lists. Building the lists costs one recommendation query per student; the
+// matching itself is near-linear in roster size. Truncation leaves some students
+// without a stable partner, so matching repeats in rounds over the students left
+// over; the rest are paired greedily by combined score until at most one remains.
+// Later rounds only score a bounded sample of the leftover pool per student, so no
+// step compares every pair of leftovers.
+public class StableMatcher {
+    private static final int DEFAULT_LIST_LENGTH = 20;
+    private static final int MAX_ROUNDS = 8;
+    // Leftovers scored per student in later rounds, as a multiple of the list length
+    private static final int SAMPLE_FACTOR = 4;
+
+    private final RecommendationEngine engine;
+    private int listLength = DEFAULT_LIST_LENGTH;
+
+    public StableMatcher(RecommendationEngine engine) {
+        this.engine = engine;
+    }
+
+    public void setListLength(int listLength) {
+        this.listLength = Math.max(1, listLength);
+    }
+
+    public static class Result {
+        private final Map<String, String> partners;
+        private final List<String> unmatched;
+        private final boolean stable;
+        private final int rounds;
+        private final Set<String> pairedGreedily;
+
+        Result(Map<String, String> partners, List<String> unmatched, boolean stable, int rounds,
+               Set<String> pairedGreedily) {
+            this.partners = partners;
+            this.unmatched = unmatched;
+            this.stable = stable;
+            this.rounds = rounds;
+            this.pairedGreedily = pairedGreedily;
+        }
+
+        // Each pair appears twice, once under each student
+        public Map<String, String> getPartners() {
+            return partners;
+        }
+
+        public List<String> getUnmatched() {
+            return unmatched;
+        }
+
+        // True when every round found a stable matching among the students it was given,
+        // judged on their truncated lists, and nobody was paired greedily. This is not
+        // stability over the whole roster: a pair from different rounds may prefer each other.
+        public boolean isStableWithinRounds() {
+            return stable;
+        }
+
+        public int getRounds() {
+            return rounds;
+        }
+
+        public int getFallbackPairs() {
+            return pairedGreedily.size() / 2;
+        }
+
+        // True when student's pair came from the greedy fallback rather than a matching round
+        public boolean isPairedGreedily(String student) {
+            return pairedGreedily.contains(student);
+        }
+    }
+
+    public Result match(int majorWeight, int skillWeight, int collabPenalty, int communityBonus) {
+        String[] names = engine.getStudents().keySet().stream().sorted().toArray(String[]::new);
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+        IntBinaryOperator score = (i, j) -> engine.computeScore(names[i], names[j], majorWeight, skillWeight,
+                collabPenalty, communityBonus);
+
+        int n = names.length;
+        int[] partner = new int[n];
+        Arrays.fill(partner, -1);
+        int[] pool = IntStream.range(0, n).toArray();
+        // The first round uses the engine's own top-N over the whole roster
+        int[][] firstLists = IntStream.range(0, n)
+                .parallel()
+                .mapToObj(i -> engine.recommendPartners(names[i], listLength, majorWeight, skillWeight,
+                                collabPenalty, communityBonus)
+                        .stream().mapToInt(ids::get).toArray())
+                .toArray(int[][]::new);
+        int[][] topLists = firstLists;
+
+        boolean stable = true;
+        int rounds = 0;
+        while (pool.length >= 2 && rounds < MAX_ROUNDS) {
+            if (rounds > 0) topLists = topListsWithin(pool, firstLists, partner, score, rounds);
+            rounds++;
+            stable &= matchPool(pool, topLists, score, partner);
+
+            int[] remaining = Arrays.stream(pool).filter(i -> partner[i] < 0).toArray();
+            boolean progress = remaining.length < pool.length;
+            pool = remaining;
+            if (!progress) break;
+        }
+
+        // Each greedy pass pairs at least the best listed pair, since every list in a pool
+        // of two or more is non-empty; once the pool is no larger than the sample every list
+        // is complete, so the last pass leaves at most one student
+        Set<String> pairedGreedily = new HashSet<>();
+        int pass = rounds;
+        while (pool.length >= 2) {
+            pairGreedily(pool, topListsWithin(pool, firstLists, partner, score, ++pass), score, partner);
+            for (int i : pool) {
+                if (partner[i] >= 0) pairedGreedily.add(names[i]);
+            }
+            pool = Arrays.stream(pool).filter(i -> partner[i] < 0).toArray();
+        }
+
+        Map<String, String> partners = new LinkedHashMap<>();
+        List<String> unmatched = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (partner[i] >= 0) partners.put(names[i], names[partner[i]]);
+            else unmatched.add(names[i]);
+        }
+        return new Result(partners, unmatched, stable && pairedGreedily.isEmpty(), rounds, pairedGreedily);
+    }
+
+    // Top-N for each pool member among the other pool members only. Small pools are
+    // scanned in full; otherwise each member scores the still-unpaired entries of its
+    // first-round list plus a random sample of the pool, so cost is linear in pool size
+    private int[][] topListsWithin(int[] pool, int[][] firstLists, int[] partner, IntBinaryOperator score, int round) {
+        int sampleSize = listLength * SAMPLE_FACTOR;
+        boolean full = pool.length - 1 <= sampleSize;
+        return IntStream.range(0, pool.length)
+                .parallel()
+                .mapToObj(a -> {
+                    int size = Math.min(listLength, pool.length - 1);
+                    int[] bestIds = new int[size];
+                    int[] bestScores = new int[size];
+                    int[] found = { 0 };
+                    IntConsumer consider = b -> {
+                        if (b == pool[a]) return;
+                        for (int k = 0; k < found[0]; k++) {
+                            if (bestIds[k] == b) return;
+                        }
+                        int value = score.applyAsInt(pool[a], b);
+                        if (found[0] == size && value <= bestScores[size - 1]) return;
+                        int k = found[0] < size ? found[0]++ : size - 1;
+                        while (k > 0 && bestScores[k - 1] < value) {
+                            bestScores[k] = bestScores[k - 1];
+                            bestIds[k] = bestIds[k - 1];
+                            k--;
+                        }
+                        bestScores[k] = value;
+                        bestIds[k] = b;
+                    };
+                    if (full) {
+                        for (int b : pool) consider.accept(b);
+                    } else {
+                        for (int b : firstLists[pool[a]]) {
+                            if (partner[b] < 0) consider.accept(b);
+                        }
+                        // Seeded per student and round so results do not depend on thread timing
+                        SplittableRandom random = new SplittableRandom(((long) pool[a] << 32) | round);
+                        for (int t = 0; t < sampleSize; t++) {
+                            consider.accept(pool[random.nextInt(pool.length)]);
+                        }
+                    }
+                    return Arrays.copyOf(bestIds, found[0]);
+                })
+                .toArray(int[][]::new);
+    }
+
+    // Runs stable roommates on one pool; topLists[k] belongs to pool[k] and holds global ids
+    private boolean matchPool(int[] pool, int[][] topLists, IntBinaryOperator score, int[] partner) {
+        int m = pool.length;
+        Map<Integer, Integer> local = new HashMap<>();
+        for (int k = 0; k < m; k++) {
+            local.put(pool[k], k);
+        }
+
+        // A student also considers everyone who ranked them, so popular students
+        // do not leave their admirers with empty lists after truncation
+        List<List<Integer>> admirers = new ArrayList<>();
+        for (int k = 0; k < m; k++) admirers.add(new ArrayList<>());
+        for (int k = 0; k < m; k++) {
+            for (int j : topLists[k]) admirers.get(local.get(j)).add(k);
+        }
+        int[][] preferences = IntStream.range(0, m)
+                .parallel()
+                .mapToObj(k -> {
+                    Map<Integer, Integer> scores = new LinkedHashMap<>();
+                    for (int j : topLists[k]) scores.put(local.get(j), 0);
+                    for (int j : admirers.get(k)) scores.put(j, 0);
+                    scores.replaceAll((j, zero) -> score.applyAsInt(pool[k], pool[j]));
+                    return scores.entrySet().stream()
+                            .sorted((a, b) -> b.getValue() - a.getValue())
+                            .mapToInt(Map.Entry::getKey)
+                            .toArray();
+                })
+                .toArray(int[][]::new);
+
+        Table table = new Table(preferences);
+        boolean stable = table.phaseOne() && table.phaseTwo();
+
+        // If no stable matching exists, keep only the pairs the reduced table agrees on
+        for (int k = 0; k < m; k++) {
+            if (table.count[k] == 1) {
+                int j = table.first(k);
+                if (table.count[j] == 1 && table.first(j) == k) partner[pool[k]] = pool[j];
+            }
+        }
+        return stable;
+    }
+
+    // Greedy by combined score over the top lists of whoever is still unpaired
+    private void pairGreedily(int[] pool, int[][] topLists, IntBinaryOperator score, int[] partner) {
+        List<long[]> candidates = new ArrayList<>();
+        for (int k = 0; k < pool.length; k++) {
+            int i = pool[k];
+            for (int j : topLists[k]) {
+                candidates.add(new long[] { score.applyAsInt(i, j) + score.applyAsInt(j, i), i, j });
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(b[0], a[0]));
+
+        for (long[] candidate : candidates) {
+            int i = (int) candidate[1];
+            int j = (int) candidate[2];
+            if (partner[i] < 0 && partner[j] < 0) {
+                partner[i] = j;
+                partner[j] = i;
+            }
+        }
+    }
+
+    // Irving's reduction table over truncated lists; entries are deleted symmetrically
+    private static class Table {
+        final int[][] prefs;
+        final boolean[][] removed;
+        final int[][] sortedIds;
+        final int[][] sortedRanks;
+        final int[] head;
+        final int[] tail;
+        final int[] count;
+        final int[] holder;
+        Deque<Integer> free;
+
+        Table(int[][] preferences) {
+            int n = preferences.length;
+            prefs = new int[n][];
+            removed = new boolean[n][];
+            sortedIds = new int[n][];
+            sortedRanks = new int[n][];
+            head = new int[n];
+            tail = new int[n];
+            count = new int[n];
+            holder = new int[n];
+            Arrays.fill(holder, -1);
+
+            for (int i = 0; i < n; i++) {
+                prefs[i] = preferences[i];
+                indexRanks(i);
+            }
+            // Only keep j in i's list if i is also in j's list
+            for (int i = 0; i < n; i++) {
+                int[] kept = new int[prefs[i].length];
+                int k = 0;
+                for (int j : prefs[i]) {
+                    if (rank(j, i) >= 0) kept[k++] = j;
+                }
+                prefs[i] = Arrays.copyOf(kept, k);
+                removed[i] = new boolean[k];
+                tail[i] = k;
+                count[i] = k;
+            }
+            for (int i = 0; i < n; i++) {
+                indexRanks(i);
+            }
+        }
+
+        // Ids sorted with their list positions alongside, for O(log L) rank lookups
+        private void indexRanks(int i) {
+            int length = prefs[i].length;
+            long[] packed = new long[length];
+            for (int k = 0; k < length; k++) {
+                packed[k] = ((long) prefs[i][k] << 32) | k;
+            }
+            Arrays.sort(packed);
+            sortedIds[i] = new int[length];
+            sortedRanks[i] = new int[length];
+            for (int k = 0; k < length; k++) {
+                sortedIds[i][k] = (int) (packed[k] >>> 32);
+                sortedRanks[i][k] = (int) packed[k];
+            }
+        }
+
+        int rank(int i, int j) {
+            int k = Arrays.binarySearch(sortedIds[i], j);
+            return k < 0 ? -1 : sortedRanks[i][k];
+        }
+
+        int first(int i) {
+            while (head[i] < tail[i] && removed[i][head[i]]) head[i]++;
+            return prefs[i][head[i]];
+        }
+
+        int second(int i) {
+            first(i);
+            int k = head[i] + 1;
+            while (removed[i][k]) k++;
+            return prefs[i][k];
+        }
+
+        int last(int i) {
+            while (tail[i] > head[i] && removed[i][tail[i] - 1]) tail[i]--;
+            return prefs[i][tail[i] - 1];
+        }
+
+        void delete(int i, int j) {
+            int ri = rank(i, j);
+            if (ri < 0 || removed[i][ri]) return;
+            removed[i][ri] = true;
+            count[i]--;
+            int rj = rank(j, i);
+            removed[j][rj] = true;
+            count[j]--;
+
+            // During proposals, losing the person who holds your proposal sets you free again
+            if (free != null) {
+                if (holder[j] == i) {
+                    holder[j] = -1;
+                    free.add(i);
+                }
+                if (holder[i] == j) {
+                    holder[i] = -1;
+                    free.add(j);
+                }
+            }
+        }
+
+        // Remove everyone j ranks below i from j's list (and j from theirs)
+        void deleteSuccessors(int j, int i) {
+            int r = rank(j, i);
+            for (int k = tail[j] - 1; k > r; k--) {
+                if (!removed[j][k]) delete(j, prefs[j][k]);
+            }
+        }
+
+        // Proposal phase; with incomplete lists it always succeeds
+        boolean phaseOne() {
+            free = new ArrayDeque<>();
+            for (int i = 0; i < prefs.length; i++) free.add(i);
+
+            while (!free.isEmpty()) {
+                int i = free.poll();
+                if (count[i] == 0) continue;
+                int j = first(i);
+                if (holder[j] == i) continue;
+                // j prefers i to its current holder, whose pair with j is deleted here
+                deleteSuccessors(j, i);
+                holder[j] = i;
+            }
+            free = null;
+            return true;
+        }
+
+        // Rotation elimination; false if some list empties, meaning no stable matching exists
+        boolean phaseTwo() {
+            int n = prefs.length;
+            int[] position = new int[n];
+            Arrays.fill(position, -1);
+            List<Integer> path = new ArrayList<>();
+
+            for (int start = 0; start < n; start++) {
+                while (count[start] >= 2) {
+                    path.add(start);
+                    position[start] = 0;
+                    while (true) {
+                        int x = path.get(path.size() - 1);
+                        int next = last(second(x));
+                        if (position[next] >= 0) {
+                            List<Integer> cycle = new ArrayList<>(path.subList(position[next], path.size()));
+                            if (!eliminate(cycle)) return false;
+                            break;
+                        }
+                        position[next] = path.size();
+                        path.add(next);
+                    }
+                    for (int x : path) position[x] = -1;
+                    path.clear();
+                }
+            }
+            return true;
+        }
+
+        private boolean eliminate(List<Integer> rotation) {
+            int r = rotation.size();
+            int[] seconds = new int[r];
+            for (int k = 0; k < r; k++) {
+                seconds[k] = second(rotation.get(k));
+            }
+            for (int k = 0; k < r; k++) {
+                int x = rotation.get(k);
+                int y = seconds[k];
+                deleteSuccessors(y, x);
+            }
+            for (int x : rotation) {
+                if (count[x] == 0) return false;
+            }
+            for (int y : seconds) {
+                if (count[y] == 0) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -1,11 +1,30 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
 
 public class StudentDataLoader {
     private Map<String, Student> students = new HashMap<>();
     private Map<String, List<String>> collaborations = new HashMap<>();
+    private final Predicate<String> include;
+    private CollaborationHistory collaborationHistory;
+
+    // One edge with its weight and term; matrix cells and plain edge lists give weight 1, term 0
+    public interface WeightedEdgeConsumer {
+        void accept(String source, String target, double weight, int term);
+    }
 
     public StudentDataLoader(String studentFile, String skillFile, String collaborationFile) throws IOException {
+        this(studentFile, skillFile, collaborationFile, name -> true);
+    }
+
+    // Keeps only the students (and their outgoing collaborations) that include accepts,
+    // dropping other rows as they are read, e.g. to load one shard of a large roster
+    public StudentDataLoader(String studentFile, String skillFile, String collaborationFile,
+                             Predicate<String> include) throws IOException {
+        this.include = include;
         Map<String, String> majors = loadMajors(studentFile);
         Map<String, Map<String, Integer>> skills = loadSkills(skillFile);
         for (String name : majors.keySet()) {
@@ -18,14 +37,14 @@ public class StudentDataLoader {
 
     private Map<String, String> loadMajors(String path) throws IOException {
         Map<String, String> majors = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+        try (BufferedReader reader = openReader(path)) {
             String[] headers = reader.readLine().split(",");
             int majorIdx = Arrays.asList(headers).indexOf("Major");
 
             String line;
             while ((line = reader.readLine()) != null) {
                 String[] data = line.split(",");
-                if (data.length > majorIdx) {
+                if (data.length > majorIdx && include.test(data[0].trim())) {
                     majors.put(data[0].trim(), data[majorIdx].trim());
                 }
             }
@@ -35,12 +54,13 @@ public class StudentDataLoader {
 
     private Map<String, Map<String, Integer>> loadSkills(String path) throws IOException {
         Map<String, Map<String, Integer>> allSkills = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+        try (BufferedReader reader = openReader(path)) {
             String[] headers = reader.readLine().split(",");
             String line;
             while ((line = reader.readLine()) != null) {
                 String[] data = line.split(",");
                 String name = data[0].trim();
+                if (!include.test(name)) continue;
                 Map<String, Integer> skillMap = new HashMap<>();
                 for (int i = 1; i < data.length; i++) {
                     try {
@@ -55,23 +75,181 @@ public class StudentDataLoader {
         return allSkills;
     }
 
+    // Fills the plain adjacency lists and, when the file has Weight or Term columns,
+    // the weighted, term-stamped history in the same pass
     private void loadCollaborations(String path) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+        if (hasHistoryColumns(path)) {
+            collaborationHistory = new CollaborationHistory(CollaborationHistory.DEFAULT_HALF_LIFE_TERMS);
+        }
+        CollaborationHistory.Batch batch = collaborationHistory == null ? null : collaborationHistory.newBatch();
+        readWeightedEdges(path, (name, partners) -> {
+            if (include.test(name)) collaborations.put(name, partners);
+        }, (source, target, weight, term) -> {
+            if (!include.test(source)) return;
+            addPartner(collaborations, source, target);
+            if (batch != null) batch.add(source, target, weight, term);
+        });
+        removeDuplicatePartners(collaborations);
+        if (batch != null) collaborationHistory.ingest(batch);
+    }
+
+    // The history in an edge list with Weight or Term columns, or null if it has neither
+    // and the flat 0/1 penalty applies; for rosters not loaded through this class
+    public static CollaborationHistory loadCollaborationHistory(String path) throws IOException {
+        if (!hasHistoryColumns(path)) return null;
+        CollaborationHistory history = new CollaborationHistory(CollaborationHistory.DEFAULT_HALF_LIFE_TERMS);
+        CollaborationHistory.Batch batch = history.newBatch();
+        readWeightedEdges(path, (name, partners) -> { }, 0, batch::add);
+        history.ingest(batch);
+        return history;
+    }
+
+    // Adds a new term's pairings (edge list or matrix) to history. Rows without a Term
+    // column belong to the term after the history's current one, so everything already
+    // stored decays by a term. Returns the number of edges read.
+    public static int ingestTerm(String path, CollaborationHistory history) throws IOException {
+        int current = history.getCurrentTerm();
+        int term = current == Integer.MIN_VALUE ? 0 : current + 1;
+        CollaborationHistory.Batch batch = history.newBatch();
+        readWeightedEdges(path, (name, partners) -> { }, term, batch::add);
+        history.advanceTo(term);
+        history.ingest(batch);
+        return batch.size();
+    }
+
+    private static boolean hasHistoryColumns(String path) throws IOException {
+        try (BufferedReader reader = openReader(path)) {
+            String header = reader.readLine();
+            if (header == null) return false;
+            String[] headers = header.split(",");
+            return isEdgeListHeader(headers) && (column(headers, "Weight") >= 0 || column(headers, "Term") >= 0);
+        }
+    }
+
+    // Reads either an N x N 0/1 matrix (collaborations.csv, friendships.csv) or a
+    // sparse "Source,Target" edge list into adjacency lists, chosen by the header
+    public static Map<String, List<String>> loadAdjacency(String path) throws IOException {
+        Map<String, List<String>> adjacency = new HashMap<>();
+        readEdges(path, adjacency::put, (source, target) -> addPartner(adjacency, source, target));
+        removeDuplicatePartners(adjacency);
+        return adjacency;
+    }
+
+    private static void addPartner(Map<String, List<String>> adjacency, String source, String target) {
+        adjacency.computeIfAbsent(source, k -> new ArrayList<>()).add(target);
+    }
+
+    // An edge list may name a pairing in both directions; drop the repeats once per row
+    // after loading, keeping first-seen order, rather than searching the row on every edge
+    private static void removeDuplicatePartners(Map<String, List<String>> adjacency) {
+        for (Map.Entry<String, List<String>> row : adjacency.entrySet()) {
+            List<String> partners = row.getValue();
+            if (partners.size() < 2) continue;
+            Set<String> unique = new LinkedHashSet<>(partners);
+            if (unique.size() < partners.size()) row.setValue(new ArrayList<>(unique));
+        }
+    }
+
+    // Streams every edge to onEdge without building adjacency lists; matrix rows are
+    // also reported to onRow so callers can keep students who have no partners
+    public static void readEdges(String path, BiConsumer<String, List<String>> onRow,
+                                 BiConsumer<String, String> onEdge) throws IOException {
+        readWeightedEdges(path, onRow, (source, target, weight, term) -> onEdge.accept(source, target));
+    }
+
+    // Like readEdges, but an edge list may also carry "Weight" and "Term" columns,
+    // found by header name; rows without them count as weight 1 in term 0
+    public static void readWeightedEdges(String path, BiConsumer<String, List<String>> onRow,
+                                         WeightedEdgeConsumer onEdge) throws IOException {
+        readWeightedEdges(path, onRow, 0, onEdge);
+    }
+
+    // As above, with rows that have no Term stamped with defaultTerm instead of 0
+    public static void readWeightedEdges(String path, BiConsumer<String, List<String>> onRow, int defaultTerm,
+                                         WeightedEdgeConsumer onEdge) throws IOException {
+        try (BufferedReader reader = openReader(path)) {
             String[] headers = reader.readLine().split(",");
-            List<String> names = Arrays.asList(Arrays.copyOfRange(headers, 1, headers.length));
-            String line;
-            while ((line = reader.readLine()) != null) {
+            if (isEdgeListHeader(headers)) {
+                readEdgeList(reader, headers, defaultTerm, onEdge);
+            } else {
+                readMatrix(reader, headers, defaultTerm, onRow, onEdge);
+            }
+        }
+    }
+
+    static boolean isEdgeListHeader(String[] headers) {
+        return headers.length >= 2
+                && headers[0].trim().equalsIgnoreCase("Source")
+                && headers[1].trim().equalsIgnoreCase("Target");
+    }
+
+    // Index of an optional edge-list column after Source and Target, or -1
+    private static int column(String[] headers, String name) {
+        for (int i = 2; i < headers.length; i++) {
+            if (headers[i].trim().equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    private static void readMatrix(BufferedReader reader, String[] headers, int term,
+                                   BiConsumer<String, List<String>> onRow, WeightedEdgeConsumer onEdge)
+            throws IOException {
+        List<String> names = Arrays.asList(Arrays.copyOfRange(headers, 1, headers.length));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] data = line.split(",");
+            String name = data[0].trim();
+            onRow.accept(name, new ArrayList<>());
+            for (int i = 1; i < data.length; i++) {
+                if ("1".equals(data[i].trim())) {
+                    onEdge.accept(name, names.get(i - 1).trim(), 1, term);
+                }
+            }
+        }
+    }
+
+    // One "source,target[,extra...]" row per pairing, so cost is proportional to the edge count.
+    // Pairings are symmetric like the matrix: each row is reported in both directions, and
+    // a list that already names a pairing both ways gives duplicates the callers ignore.
+    private static void readEdgeList(BufferedReader reader, String[] headers, int defaultTerm,
+                                     WeightedEdgeConsumer onEdge) throws IOException {
+        int weightColumn = column(headers, "Weight");
+        int termColumn = column(headers, "Term");
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int comma = line.indexOf(',');
+            if (comma < 0) continue;
+            int end = line.indexOf(',', comma + 1);
+            String source = line.substring(0, comma).trim();
+            String target = line.substring(comma + 1, end < 0 ? line.length() : end).trim();
+            if (source.isEmpty() || target.isEmpty()) continue;
+            double weight = 1;
+            int term = defaultTerm;
+            if (end >= 0 && (weightColumn >= 0 || termColumn >= 0)) {
                 String[] data = line.split(",");
-                String name = data[0].trim();
-                List<String> partners = new ArrayList<>();
-                for (int i = 1; i < data.length; i++) {
-                    if ("1".equals(data[i].trim())) {
-                        partners.add(names.get(i - 1).trim());
-                    }
+                if (weightColumn >= 0 && weightColumn < data.length && !data[weightColumn].isBlank()) {
+                    weight = Double.parseDouble(data[weightColumn].trim());
+                }
+                if (termColumn >= 0 && termColumn < data.length && !data[termColumn].isBlank()) {
+                    term = Integer.parseInt(data[termColumn].trim());
                 }
-                collaborations.put(name, partners);
             }
+            onEdge.accept(source, target, weight, term);
+            if (!source.equals(target)) onEdge.accept(target, source, weight, term);
+        }
+    }
+
+    // Opens plain or gzip-compressed text, detected from the gzip magic bytes
+    static BufferedReader openReader(String path) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(path));
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            in = new GZIPInputStream(in, 64 * 1024);
         }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
     }
 
     public Map<String, Student> getStudents() {
@@ -81,4 +259,9 @@ public class StudentDataLoader {
     public Map<String, List<String>> getCollaborations() {
         return collaborations;
     }
+
+    // Null unless the collaboration file had Weight or Term columns
+    public CollaborationHistory getCollaborationHistory() {
+        return collaborationHistory;
+    }
 }
\ No newline at end of file
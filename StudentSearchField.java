@@ -0,0 +1,144 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Text field with a type-ahead popup, used instead of a combo box holding every
+// student. The popup only ever holds the current matches from StudentSearchIndex,
+// so it opens instantly no matter how large the roster is.
+public class StudentSearchField extends JTextField {
+    private static final int MAX_RESULTS = 50;
+
+    private final StudentSearchIndex index;
+    private final DefaultListModel<String> matches = new DefaultListModel<>();
+    private final JList<String> matchList = new JList<>(matches);
+    private final JPopupMenu popup = new JPopupMenu();
+    private Consumer<String> selectionListener = name -> {};
+    private String selectedName;
+    private boolean updating;
+
+    public StudentSearchField(StudentSearchIndex index) {
+        this.index = index;
+        setFont(Theme.NORMAL_FONT);
+        setForeground(Theme.TEXT_COLOR);
+        setBackground(Theme.PANEL_COLOR);
+        setToolTipText("Type a name to search");
+
+        matchList.setFont(Theme.NORMAL_FONT);
+        matchList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchList.setFocusable(false);
+        matchList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                String value = matchList.getSelectedValue();
+                if (value != null) choose(value);
+            }
+        });
+        JScrollPane scroll = new JScrollPane(matchList);
+        scroll.setBorder(BorderFactory.createLineBorder(Theme.BORDER_COLOR));
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createEmptyBorder());
+        popup.add(scroll);
+
+        getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { refresh(); }
+            public void removeUpdate(DocumentEvent e) { refresh(); }
+            public void changedUpdate(DocumentEvent e) { refresh(); }
+        });
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int size = matches.size();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> {
+                        if (!popup.isVisible()) refresh();
+                        if (size > 0) moveSelection(1);
+                    }
+                    case KeyEvent.VK_UP -> {
+                        if (size > 0) moveSelection(-1);
+                    }
+                    case KeyEvent.VK_ENTER -> {
+                        String value = matchList.getSelectedValue();
+                        if (value == null && size > 0) value = matches.get(0);
+                        if (value != null) choose(value);
+                    }
+                    case KeyEvent.VK_ESCAPE -> popup.setVisible(false);
+                    default -> { }
+                }
+            }
+        });
+
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+                commitTypedText();
+            }
+        });
+    }
+
+    // Buttons may be clicked before this field loses focus, so the typed text is
+    // committed here too; what is shown is always the name that gets used
+    public String getSelectedName() {
+        commitTypedText();
+        return selectedName;
+    }
+
+    // Shows name in the field without opening the popup or notifying the listener
+    public void setSelectedName(String name) {
+        selectedName = name;
+        updating = true;
+        setText(name == null ? "" : name);
+        updating = false;
+        popup.setVisible(false);
+    }
+
+    public void setSelectionListener(Consumer<String> listener) {
+        this.selectionListener = listener;
+    }
+
+    // Selects an exact (case-insensitive) match of the typed text, otherwise puts the
+    // current selection back in the field
+    private void commitTypedText() {
+        String typed = getText().trim();
+        if (selectedName != null && typed.equals(selectedName)) return;
+        String match = index.find(typed);
+        if (match != null) {
+            choose(match);
+        } else {
+            setSelectedName(selectedName);
+        }
+    }
+
+    private void choose(String name) {
+        setSelectedName(name);
+        selectionListener.accept(name);
+    }
+
+    private void moveSelection(int delta) {
+        int next = Math.max(0, Math.min(matches.size() - 1, matchList.getSelectedIndex() + delta));
+        matchList.setSelectedIndex(next);
+        matchList.ensureIndexIsVisible(next);
+    }
+
+    private void refresh() {
+        if (updating || !isShowing()) return;
+        List<String> results = index.search(getText(), MAX_RESULTS);
+        matches.clear();
+        matches.addAll(results);
+        if (results.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+        matchList.setSelectedIndex(0);
+        matchList.setVisibleRowCount(Math.min(results.size(), 8));
+        popup.setPopupSize(Math.max(getWidth(), 180), matchList.getPreferredScrollableViewportSize().height + 4);
+        if (!popup.isVisible()) popup.show(this, 0, getHeight());
+        popup.revalidate();
+        requestFocusInWindow();
+    }
+}
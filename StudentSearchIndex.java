@@ -0,0 +1,192 @@
+import java.util.*;
+
+// Type-ahead lookup over student names, built once at load time and shared by
+// every selector. Prefix matches (on the full name or any word in it) come from
+// binary search over a sorted array of lowercase keys; if there are too few, the
+// rest are filled by fuzzy matches ranked by shared character trigrams.
+public class StudentSearchIndex {
+    // A trigram in more than this many names and more than COMMON_SHARE of the roster
+    // never adds fuzzy candidates of its own; it only counts towards ones found through
+    // rarer trigrams
+    private static final int COMMON_TRIGRAM = 2048;
+    private static final double COMMON_SHARE = 0.125;
+    // Fuzzy ranking considers at most this many names, taken from the rarest trigrams first
+    private static final int MAX_CANDIDATES = 4096;
+    private static final int[] NO_IDS = new int[0];
+
+    private final String[] names;
+    private final String[] keys;     // lowercase name suffixes starting at a word boundary, sorted
+    private final int[] keyOwners;   // index into names for each key
+    private final Map<Long, int[]> trigrams = new HashMap<>();
+    private final int[] nameLengths;
+    private final int commonTrigram;
+    // Scratch space for fuzzy, reused across queries; overlap is all zero between calls
+    private final int[] overlap;
+    private final int[] touched;
+
+    public StudentSearchIndex(Collection<String> studentNames) {
+        names = studentNames.stream().sorted(String.CASE_INSENSITIVE_ORDER).toArray(String[]::new);
+
+        List<String> keyList = new ArrayList<>();
+        List<Integer> ownerList = new ArrayList<>();
+        Map<Long, List<Integer>> postings = new HashMap<>();
+        for (int id = 0; id < names.length; id++) {
+            String lower = names[id].toLowerCase(Locale.ROOT);
+            for (int i = 0; i < lower.length(); i++) {
+                if (i == 0 || (lower.charAt(i - 1) == ' ' && lower.charAt(i) != ' ')) {
+                    keyList.add(lower.substring(i));
+                    ownerList.add(id);
+                }
+            }
+            for (long gram : trigramsOf(lower)) {
+                List<Integer> ids = postings.computeIfAbsent(gram, k -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) ids.add(id);
+            }
+        }
+
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+        keys = new String[order.length];
+        keyOwners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            keyOwners[i] = ownerList.get(order[i]);
+        }
+        postings.forEach((gram, ids) -> trigrams.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        overlap = new int[names.length];
+        nameLengths = Arrays.stream(names).mapToInt(String::length).toArray();
+        touched = new int[MAX_CANDIDATES];
+        commonTrigram = Math.max(COMMON_TRIGRAM, (int) (names.length * COMMON_SHARE));
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public List<String> allNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    // The stored spelling of name, matched case-insensitively, or null
+    public String find(String name) {
+        int i = Arrays.binarySearch(names, name, String.CASE_INSENSITIVE_ORDER);
+        return i >= 0 ? names[i] : null;
+    }
+
+    // Up to limit names: full-name prefix hits first, then word prefix hits, then fuzzy hits
+    public List<String> search(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) return allNames().subList(0, Math.min(limit, names.length));
+
+        LinkedHashSet<Integer> hits = new LinkedHashSet<>();
+        List<Integer> wordHits = new ArrayList<>();
+        int start = lowerBound(q);
+        // Scan a few extra keys so full-name matches can outrank earlier word matches
+        for (int i = start; i < keys.length && keys[i].startsWith(q) && hits.size() + wordHits.size() < limit * 2; i++) {
+            int id = keyOwners[i];
+            // A key equal to the whole name is a full-name prefix match
+            if (keys[i].length() == names[id].length()) hits.add(id);
+            else wordHits.add(id);
+        }
+        for (int id : wordHits) {
+            if (hits.size() >= limit) break;
+            hits.add(id);
+        }
+        if (hits.size() < limit) {
+            for (int id : fuzzy(q, limit)) {
+                if (hits.size() >= limit) break;
+                hits.add(id);
+            }
+        }
+
+        List<String> result = new ArrayList<>(hits.size());
+        for (int id : hits) result.add(names[id]);
+        return result;
+    }
+
+    private int lowerBound(String q) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(q) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Names sharing the most trigrams with the query, ties broken by shorter name
+    private synchronized List<Integer> fuzzy(String q, int limit) {
+        List<Long> grams = trigramsOf(q);
+        if (grams.isEmpty() || limit <= 0) return Collections.emptyList();
+        int[][] postings = new int[grams.size()][];
+        for (int g = 0; g < postings.length; g++) {
+            postings[g] = trigrams.getOrDefault(grams.get(g), NO_IDS);
+        }
+        Arrays.sort(postings, Comparator.comparingInt(ids -> ids.length));
+
+        // Require at least a third of the query's trigrams so noise does not show up
+        int minimum = Math.max(1, grams.size() / 3);
+        // A name sharing minimum trigrams shares one of the rarest (size - minimum + 1),
+        // so only those can add candidates, and only until there are MAX_CANDIDATES.
+        // The rest just count known candidates: by a scan, or by a binary search per
+        // candidate when the posting list is much longer than the candidate list.
+        // Very common trigrams only add candidates if nothing rarer matched at all.
+        int count = 0;
+        for (int g = 0; g < postings.length; g++) {
+            int[] ids = postings[g];
+            boolean collect = g <= postings.length - minimum && (ids.length <= commonTrigram || count == 0);
+            if (collect || ids.length <= count * 16) {
+                for (int id : ids) {
+                    if (overlap[id] > 0) {
+                        overlap[id]++;
+                    } else if (collect && count < MAX_CANDIDATES) {
+                        overlap[id] = 1;
+                        touched[count++] = id;
+                    }
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    if (Arrays.binarySearch(ids, touched[i]) >= 0) overlap[touched[i]]++;
+                }
+            }
+        }
+
+        // Keep only the best limit candidates, in order, without sorting them all
+        int[] best = new int[Math.min(limit, count)];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int id = touched[i];
+            if (overlap[id] < minimum || (found == best.length && !ranksAbove(id, best[found - 1]))) continue;
+            int k = found < best.length ? found++ : found - 1;
+            while (k > 0 && ranksAbove(id, best[k - 1])) {
+                best[k] = best[k - 1];
+                k--;
+            }
+            best[k] = id;
+        }
+        for (int i = 0; i < count; i++) {
+            overlap[touched[i]] = 0;
+        }
+
+        List<Integer> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) result.add(best[i]);
+        return result;
+    }
+
+    private boolean ranksAbove(int a, int b) {
+        return overlap[a] != overlap[b] ? overlap[a] > overlap[b] : nameLengths[a] < nameLengths[b];
+    }
+
+    // Padded so short names and word starts still produce trigrams
+    private static List<Long> trigramsOf(String lower) {
+        String padded = "  " + lower + " ";
+        List<Long> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long gram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            if (!grams.contains(gram)) grams.add(gram);
+        }
+        return grams;
+    }
+}
@@ -13,28 +13,68 @@ import javax.swing.border.TitledBorder;
 
 
 public class StudentViewGUI {
+    private static final int DIVERSITY_POOL = 100;
+
     private JFrame frame;
-    private JComboBox<String> studentSelector;
+    private StudentSearchField studentSelector;
+    private StudentSearchIndex searchIndex;
     private WrappedJTextPane outputArea;
     private RecommendationEngine engine;
+    private WeightSweepEngine sweep;
+    private DiversityReranker reranker;
+    private boolean showingRecommendations;
     private Map<String, Student> students;
     private CollaborationGraph graph;
+    private IndexedGraph collaborationNetwork;
+    private GraphAnalytics collaborationAnalytics;
     private JSlider majorWeightSlider;
     private JSlider skillWeightSlider;
     private JSlider collabPenaltySlider;
+    private JSlider communityBonusSlider;
+    private JSlider diversitySlider;
     private JPanel settingsPanel;
 
     public StudentViewGUI(String studentCSV, String skillCSV, String collabCSV) {
+        this(studentCSV, skillCSV, collabCSV, null);
+    }
+
+    public StudentViewGUI(String studentCSV, String skillCSV, String collabCSV, String friendshipCSV) {
         try {
             StudentDataLoader loader = new StudentDataLoader(studentCSV, skillCSV, collabCSV);
-            this.students = loader.getStudents();
-            this.engine = new RecommendationEngine(students, loader.getCollaborations());
-            SwingUtilities.invokeLater(this::buildGUI);
+            init(loader.getStudents(), loader.getCollaborations(), loader.getCollaborationHistory(), friendshipCSV);
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(null, "Error loading data: " + e.getMessage());
+        }
+    }
+
+    // Roster recovered by a RosterStore from its newest snapshot and log tail
+    public StudentViewGUI(RosterStore store, String friendshipCSV) {
+        try {
+            init(store.getStudents(), store.getCollaborations(), null, friendshipCSV);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(null, "Error loading data: " + e.getMessage());
         }
     }
 
+    private void init(Map<String, Student> students, Map<String, List<String>> collaborations,
+                      CollaborationHistory history, String friendshipCSV) throws java.io.IOException {
+        this.students = students;
+        this.engine = new RecommendationEngine(students, collaborations);
+        engine.setCollaborationHistory(history);
+        this.sweep = new WeightSweepEngine(engine);
+        this.reranker = new DiversityReranker(students);
+        this.searchIndex = new StudentSearchIndex(students.keySet());
+        this.collaborationNetwork = new IndexedGraph(students.keySet(), collaborations);
+        this.collaborationAnalytics = new GraphAnalytics(collaborationNetwork);
+
+        Map<String, List<String>> friendships = friendshipCSV != null && new java.io.File(friendshipCSV).exists()
+                ? StudentDataLoader.loadAdjacency(friendshipCSV)
+                : Collections.emptyMap();
+        IndexedGraph network = new IndexedGraph(students.keySet(), collaborations, friendships);
+        engine.setCommunities(new CommunityDetector(network).detect());
+        SwingUtilities.invokeLater(this::buildGUI);
+    }
+
     private static class WrappedJTextPane extends JTextPane {
         @Override
         public boolean getScrollableTracksViewportWidth() {
@@ -78,14 +118,13 @@ public class StudentViewGUI {
     
         // Student Selection Panel
         JPanel studentPanel = createStyledPanel("Student Selection");
-        studentSelector = new JComboBox<>(students.keySet().toArray(new String[0]));
-        studentSelector.setFont(Theme.NORMAL_FONT);
-        studentSelector.setBackground(Theme.PANEL_COLOR);
-        studentSelector.setForeground(Theme.TEXT_COLOR);
+        studentSelector = new StudentSearchField(searchIndex);
+        studentSelector.setSelectedName(firstStudent());
         studentSelector.setPreferredSize(new Dimension(180, 30)); // narrower
+        studentSelector.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
         studentSelector.setAlignmentX(Component.CENTER_ALIGNMENT);
-        studentSelector.addActionListener(e -> {
-            String selected = (String) studentSelector.getSelectedItem();
+        studentSelector.setSelectionListener(selected -> {
+            showingRecommendations = false;
             if (selected != null) {
                 graph.setSelectedNode(selected);
                 outputArea.setText("<html><b>Select 'Recommend Partners' to see suggestions.</b></html>");
@@ -113,32 +152,61 @@ public class StudentViewGUI {
         JPanel majorSliderPanel = createStyledSlider("Major Weight", 1, 5, 3);
         JPanel skillSliderPanel = createStyledSlider("Skill Weight", 1, 5, 3);
         JPanel collabSliderPanel = createStyledSlider("Collaboration Penalty", 1, 5, 2);
+        JPanel communitySliderPanel = createStyledSlider("Cross-Group Bonus", 0, 5, 0);
+        JPanel diversitySliderPanel = createStyledSlider("Diversity", 0, 5, 0);
     
         majorWeightSlider = (JSlider) majorSliderPanel.getComponent(2);
         skillWeightSlider = (JSlider) skillSliderPanel.getComponent(2);
         collabPenaltySlider = (JSlider) collabSliderPanel.getComponent(2);
+        communityBonusSlider = (JSlider) communitySliderPanel.getComponent(2);
+        communityBonusSlider.setToolTipText("Favor partners from a different friend/collaboration group");
+        diversitySlider = (JSlider) diversitySliderPanel.getComponent(2);
+        diversitySlider.setToolTipText("Favor a mix of majors and skill levels in the top recommendations");
+
+        // Rankings come from precomputed score components, so refresh them live while dragging
+        for (JSlider slider : new JSlider[] { majorWeightSlider, skillWeightSlider, collabPenaltySlider, communityBonusSlider, diversitySlider }) {
+            slider.addChangeListener(e -> {
+                if (showingRecommendations) handleRecommendation();
+            });
+        }
     
         weightPanel.add(majorSliderPanel);
         weightPanel.add(Box.createVerticalStrut(10));
         weightPanel.add(skillSliderPanel);
         weightPanel.add(Box.createVerticalStrut(10));
         weightPanel.add(collabSliderPanel);
+        weightPanel.add(Box.createVerticalStrut(10));
+        weightPanel.add(communitySliderPanel);
+        weightPanel.add(Box.createVerticalStrut(10));
+        weightPanel.add(diversitySliderPanel);
         settingsPanel.add(weightPanel);
     
         // Actions Panel
         JPanel buttonPanel = createStyledPanel("Actions");
         JButton recommendButton = createStyledButton("Recommend Partners");
         JButton degreeButton = createStyledButton("Find Connection Degree");
+        JButton insightsButton = createStyledButton("Graph Insights");
+        JButton pairButton = createStyledButton("Pair Whole Roster");
+        JButton termButton = createStyledButton("Add Term Pairings");
     
         recommendButton.addActionListener(e -> handleRecommendation());
         degreeButton.addActionListener(e -> showDegreeDialog());
+        insightsButton.addActionListener(e -> showGraphInsights());
+        pairButton.addActionListener(e -> showRosterPairing());
+        termButton.addActionListener(e -> addTermPairings());
     
         recommendButton.setToolTipText("Suggest top 5 project partners for the selected student");
         degreeButton.setToolTipText("Show how many connections away two students are");
+        insightsButton.setToolTipText("Show isolated students, groups and the most central students");
+        pairButton.setToolTipText("Give every student one partner so that recommendations are mutual");
+        termButton.setToolTipText("Load another term's pairings; older pairings count for less");
     
-        buttonPanel.setLayout(new GridLayout(2, 1, 0, 10));
+        buttonPanel.setLayout(new GridLayout(5, 1, 0, 10));
         buttonPanel.add(recommendButton);
         buttonPanel.add(degreeButton);
+        buttonPanel.add(insightsButton);
+        buttonPanel.add(pairButton);
+        buttonPanel.add(termButton);
         settingsPanel.add(buttonPanel);
     
         // Wrap settings in scroll pane
@@ -167,8 +235,9 @@ public class StudentViewGUI {
         graph = new CollaborationGraph(students, engine.getCollaborations());
         graph.setPreferredSize(new Dimension(400, 500));
         graph.setBackground(Theme.PANEL_COLOR);
+        graph.setCommunities(engine.getCommunities());
         graph.setNodeClickListener(name -> {
-            studentSelector.setSelectedItem(name);
+            studentSelector.setSelectedName(name);
             displayStudentInfo(name);
         });
     
@@ -286,10 +355,10 @@ public class StudentViewGUI {
         if (title.equals("Student Selection")) {
             panel.setPreferredSize(new Dimension(220, 80));
         } else if (title.equals("Recommendation Weights")) {
-            panel.setPreferredSize(new Dimension(300, 300)); // slightly taller to avoid cut-off
+            panel.setPreferredSize(new Dimension(300, 450)); // slightly taller to avoid cut-off
         } else if (title.equals("Actions")) {
-            panel.setPreferredSize(new Dimension(280, 150));
-            panel.setMinimumSize(new Dimension(280, 150));
+            panel.setPreferredSize(new Dimension(280, 330));
+            panel.setMinimumSize(new Dimension(280, 330));
         }
 
         TitledBorder border = BorderFactory.createTitledBorder(
@@ -361,14 +430,23 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
     }
 
     private void handleRecommendation() {
-        String selectedName = (String) studentSelector.getSelectedItem();
+        String selectedName = studentSelector.getSelectedName();
         if (selectedName != null) {
             int majorWeight = majorWeightSlider.getValue();
             int skillWeight = skillWeightSlider.getValue();
             int collabPenalty = collabPenaltySlider.getValue();
-    
-            List<String> recommendations = engine.recommendPartners(selectedName, 5,
-                    majorWeight, skillWeight, collabPenalty);
+            int communityBonus = communityBonusSlider.getValue();
+            int diversityWeight = diversitySlider.getValue();
+    
+            // Diversify over a wider pool of the best candidates, then keep 5
+            int poolSize = diversityWeight > 0 ? DIVERSITY_POOL : 5;
+            List<String> pool = sweep.recommendPartners(selectedName, poolSize,
+                    majorWeight, skillWeight, collabPenalty, communityBonus);
+            int[] relevance = new int[pool.size()];
+            for (int i = 0; i < relevance.length; i++) {
+                relevance[i] = engine.computeScore(selectedName, pool.get(i), majorWeight, skillWeight, collabPenalty, communityBonus);
+            }
+            List<String> recommendations = reranker.rerank(pool, relevance, 5, diversityWeight);
     
             StringBuilder html = new StringBuilder();
             html.append("<html><head><style>")
@@ -383,10 +461,14 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
                 .append("</style></head><body>");
     
             html.append("<h2>Top Recommendations for ").append(selectedName).append(":</h2>");
+            if (diversityWeight > 0) {
+                html.append("<div class='info'>Covering ").append(reranker.coverage(recommendations))
+                    .append(" distinct majors and skill levels</div><br>");
+            }
     
             for (String name : recommendations) {
                 Student s = students.get(name);
-                int score = engine.computeScore(selectedName, name, majorWeight, skillWeight, collabPenalty);
+                int score = engine.computeScore(selectedName, name, majorWeight, skillWeight, collabPenalty, communityBonus);
                 Map<String, Integer> skills = s.getSkills();
     
                 html.append("<div class='rec'>")
@@ -419,6 +501,7 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
             html.append("</body></html>");
             outputArea.setText(html.toString());
             outputArea.setCaretPosition(0);
+            showingRecommendations = true;
         }
     }
 
@@ -461,9 +544,184 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
     
         html.append("</div></body></html>");
     
+        showingRecommendations = false;
         outputArea.setText(html.toString());
         outputArea.setCaretPosition(0); // Scroll to top
     }
+    private void showGraphInsights() {
+        showingRecommendations = false;
+        outputArea.setText("<html><b>Analyzing collaboration graph...</b></html>");
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                return buildInsightsHtml(collaborationAnalytics);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    outputArea.setText(get());
+                    outputArea.setCaretPosition(0);
+                } catch (Exception e) {
+                    outputArea.setText("<html><b>Could not analyze graph: " + e.getMessage() + "</b></html>");
+                }
+            }
+        }.execute();
+    }
+
+    private String buildInsightsHtml(GraphAnalytics analytics) {
+        int[] sizes = analytics.componentSizes();
+        int[] degrees = analytics.degreeDistribution();
+        List<String> isolated = analytics.isolatedStudents();
+        List<String> lowDegree = analytics.studentsWithDegreeAtMost(1);
+
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><style>")
+            .append("body { font-family: 'Segoe UI', sans-serif; color: #323741; padding: 15px; }")
+            .append("h2 { color: #3A3F58; font-size: 20px; margin-bottom: 15px; }")
+            .append(".card { margin-bottom: 15px; padding: 12px 15px; background-color: #F5F7FA; border: 1px solid #E1E4EB; border-radius: 6px; }")
+            .append(".title { font-weight: bold; font-size: 15px; margin-bottom: 6px; }")
+            .append(".info { font-size: 13px; line-height: 1.5; margin-bottom: 4px; }")
+            .append("</style></head><body>");
+
+        html.append("<h2>Collaboration Graph Insights</h2>");
+
+        html.append("<div class='card'><div class='title'>Overview</div>")
+            .append("<div class='info'><b>Students:</b> ").append(collaborationNetwork.size()).append("</div>")
+            .append("<div class='info'><b>Collaborations:</b> ").append(collaborationNetwork.edgeCount()).append("</div>")
+            .append("<div class='info'><b>Connected groups:</b> ").append(sizes.length).append("</div>")
+            .append("<div class='info'><b>Largest group:</b> ").append(sizes.length > 0 ? sizes[0] : 0).append(" students</div>")
+            .append("</div>");
+
+        html.append("<div class='card'><div class='title'>Isolated Students (").append(isolated.size()).append(")</div>")
+            .append("<div class='info'>").append(isolated.isEmpty() ? "None" : summarize(isolated)).append("</div>")
+            .append("<div class='title'>One Partner Or Fewer (").append(lowDegree.size()).append(")</div>")
+            .append("<div class='info'>").append(lowDegree.isEmpty() ? "None" : summarize(lowDegree)).append("</div>")
+            .append("</div>");
+
+        html.append("<div class='card'><div class='title'>Partners Per Student</div>");
+        for (int d = 0; d < degrees.length; d++) {
+            if (degrees[d] > 0) {
+                html.append("<div class='info'><b>").append(d).append(":</b> ").append(degrees[d]).append(" students</div>");
+            }
+        }
+        html.append("</div>");
+
+        html.append("<div class='card'><div class='title'>Most Central Students</div>")
+            .append("<div class='info'><b>Bridges (betweenness):</b> ").append(String.join(", ", analytics.topByBetweenness(5))).append("</div>")
+            .append("<div class='info'><b>Best connected (closeness):</b> ").append(String.join(", ", analytics.topByCloseness(5))).append("</div>")
+            .append("</div>");
+
+        html.append("</body></html>");
+        return html.toString();
+    }
+
+    private void showRosterPairing() {
+        int majorWeight = majorWeightSlider.getValue();
+        int skillWeight = skillWeightSlider.getValue();
+        int collabPenalty = collabPenaltySlider.getValue();
+        int communityBonus = communityBonusSlider.getValue();
+        showingRecommendations = false;
+        outputArea.setText("<html><b>Pairing the whole roster...</b></html>");
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                StableMatcher.Result result = new StableMatcher(engine)
+                        .match(majorWeight, skillWeight, collabPenalty, communityBonus);
+                return buildPairingHtml(result);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    outputArea.setText(get());
+                    outputArea.setCaretPosition(0);
+                } catch (Exception e) {
+                    outputArea.setText("<html><b>Could not pair roster: " + e.getMessage() + "</b></html>");
+                }
+            }
+        }.execute();
+    }
+
+    // Adds a collaboration file as the next term of history. A roster loaded without
+    // Weight/Term columns starts a history from its current pairings first.
+    private void addTermPairings() {
+        JFileChooser chooser = new JFileChooser(new java.io.File("."));
+        chooser.setDialogTitle("Add Term Pairings");
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getPath();
+        showingRecommendations = false;
+        outputArea.setText("<html><b>Adding term pairings...</b></html>");
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws java.io.IOException {
+                CollaborationHistory history = engine.getCollaborationHistory();
+                if (history == null) {
+                    history = CollaborationHistory.fromAdjacency(engine.getCollaborations(),
+                            CollaborationHistory.DEFAULT_HALF_LIFE_TERMS);
+                }
+                int edges = StudentDataLoader.ingestTerm(path, history);
+                engine.setCollaborationHistory(history);
+                return "<html><b>Added " + edges + " collaboration edges as term " + history.getCurrentTerm()
+                        + ".</b> Earlier pairings now count for less.</html>";
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    outputArea.setText(get());
+                } catch (Exception e) {
+                    outputArea.setText("<html><b>Could not add term: " + e.getMessage() + "</b></html>");
+                }
+            }
+        }.execute();
+    }
+
+    private String buildPairingHtml(StableMatcher.Result result) {
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><style>")
+            .append("body { font-family: 'Segoe UI', sans-serif; color: #323741; padding: 15px; }")
+            .append("h2 { color: #3A3F58; font-size: 20px; margin-bottom: 15px; }")
+            .append(".card { margin-bottom: 15px; padding: 12px 15px; background-color: #F5F7FA; border: 1px solid #E1E4EB; border-radius: 6px; }")
+            .append(".title { font-weight: bold; font-size: 15px; margin-bottom: 6px; }")
+            .append(".info { font-size: 13px; line-height: 1.5; margin-bottom: 4px; }")
+            .append("</style></head><body>");
+
+        html.append("<h2>Roster Pairing</h2>");
+        html.append("<div class='card'>")
+            .append("<div class='info'><b>Pairs:</b> ").append(result.getPartners().size() / 2).append("</div>")
+            .append("<div class='info'><b>Stable within each round:</b> ").append(result.isStableWithinRounds() ? "Yes" : "No").append("</div>")
+            .append("<div class='info'><b>Rounds:</b> ").append(result.getRounds()).append("</div>");
+        if (result.getFallbackPairs() > 0) {
+            html.append("<div class='info'><b>Paired greedily:</b> ").append(result.getFallbackPairs()).append("</div>");
+        }
+        html.append("</div>");
+
+        html.append("<div class='card'><div class='title'>Unmatched (").append(result.getUnmatched().size()).append(")</div>")
+            .append("<div class='info'>").append(result.getUnmatched().isEmpty() ? "None" : summarize(result.getUnmatched()))
+            .append("</div></div>");
+
+        html.append("<div class='card'><div class='title'>Pairs</div>");
+        int shown = 0;
+        for (Map.Entry<String, String> pair : result.getPartners().entrySet()) {
+            if (pair.getKey().compareTo(pair.getValue()) > 0) continue;
+            if (shown++ == 200) {
+                html.append("<div class='info'>...</div>");
+                break;
+            }
+            html.append("<div class='info'>").append(pair.getKey()).append(" &amp; ").append(pair.getValue());
+            if (result.isPairedGreedily(pair.getKey())) html.append(" <i>(paired greedily)</i>");
+            html.append("</div>");
+        }
+        html.append("</div></body></html>");
+        return html.toString();
+    }
+
+    private String summarize(List<String> names) {
+        if (names.size() <= 50) return String.join(", ", names);
+        return String.join(", ", names.subList(0, 50)) + " and " + (names.size() - 50) + " more";
+    }
+
     private void showDegreeDialog() {
         JDialog degreeDialog = new JDialog(frame, "Find Connection Degree", true);
         degreeDialog.setLayout(new GridBagLayout());
@@ -477,7 +735,9 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
         degreeDialog.add(person1Label, gbc);
 
         gbc.gridx = 1;
-        JComboBox<String> person1Selector = new JComboBox<>(students.keySet().toArray(new String[0]));
+        StudentSearchField person1Selector = new StudentSearchField(searchIndex);
+        person1Selector.setSelectedName(firstStudent());
+        person1Selector.setColumns(14);
         degreeDialog.add(person1Selector, gbc);
 
         gbc.gridx = 0;
@@ -486,7 +746,9 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
         degreeDialog.add(person2Label, gbc);
 
         gbc.gridx = 1;
-        JComboBox<String> person2Selector = new JComboBox<>(students.keySet().toArray(new String[0]));
+        StudentSearchField person2Selector = new StudentSearchField(searchIndex);
+        person2Selector.setSelectedName(firstStudent());
+        person2Selector.setColumns(14);
         degreeDialog.add(person2Selector, gbc);
 
         gbc.gridx = 0;
@@ -500,8 +762,8 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
         gbc.gridwidth = 2;
         JButton findButton = new JButton("Find Degree");
         findButton.addActionListener(e -> {
-            String person1 = (String) person1Selector.getSelectedItem();
-            String person2 = (String) person2Selector.getSelectedItem();
+            String person1 = person1Selector.getSelectedName();
+            String person2 = person2Selector.getSelectedName();
 
             if (person1 != null && person2 != null) {
                 int degree = findDegreeOfSeparation(person1, person2);
@@ -526,6 +788,10 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
         degreeDialog.setVisible(true);
     }
 
+    private String firstStudent() {
+        return searchIndex.size() == 0 ? null : searchIndex.allNames().get(0);
+    }
+
     private int findDegreeOfSeparation(String start, String end) {
         Map<String, List<String>> graph = engine.getCollaborations();
         Queue<String> queue = new LinkedList<>();
@@ -557,6 +823,27 @@ panel.setBorder(BorderFactory.createCompoundBorder(border, BorderFactory.createE
         UIManager.put("ToolTip.foreground", Theme.TEXT_COLOR);         // your dark text
         UIManager.put("ToolTip.font", Theme.NORMAL_FONT);
         UIManager.put("ToolTip.border", BorderFactory.createLineBorder(Theme.BORDER_COLOR));
-        new StudentViewGUI("students.csv", "skills.csv", "collaborations.csv");
+
+        // --store <dir> starts from a RosterStore, seeded from the CSVs the first time
+        if (args.length >= 2 && args[0].equals("--store")) {
+            try {
+                RosterStore store = RosterStore.open(args[1]);
+                if (store.getStudents().isEmpty()) {
+                    store.importFrom(new StudentDataLoader("students.csv", "skills.csv", "collaborations.csv"));
+                }
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        store.close();
+                    } catch (java.io.IOException e) {
+                        System.err.println("Closing roster store failed: " + e.getMessage());
+                    }
+                }));
+                new StudentViewGUI(store, "friendships.csv");
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(null, "Error opening roster store: " + e.getMessage());
+            }
+            return;
+        }
+        new StudentViewGUI("students.csv", "skills.csv", "collaborations.csv", "friendships.csv");
     }
 }
\ No newline at end of file
@@ -9,6 +9,10 @@ public class Theme {
     public static final Color TEXT_COLOR = new Color(50, 55, 65);
     public static final Color BORDER_COLOR = new Color(225, 228, 235);
     public static final Color PANEL_TITLE_COLOR = new Color(30, 30, 40);
+    public static final Color[] COMMUNITY_COLORS = {
+        new Color(255, 179, 128), new Color(128, 210, 170), new Color(240, 150, 180),
+        new Color(150, 200, 240), new Color(230, 210, 120), new Color(190, 160, 230)
+    };
 
     public static final Font TITLE_FONT = new Font("Helvetica Neue", Font.BOLD, 28);
     public static final Font HEADER_FONT = new Font("Helvetica Neue", Font.BOLD, 18);
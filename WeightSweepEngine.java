@@ -0,0 +1,151 @@
+import java.util.*;
+
+// Answers "what if the weights were different?" without rescanning the roster.
+// A score is linear in the slider weights:
+//   major * majorWeight + skillSurplus * skillWeight - round(collab * collabPenalty) + community * communityBonus
+// so the weight-independent components are computed once per student and the
+// candidates are grouped by identical component tuples. Any weight profile then
+// only ranks the (few) distinct tuples and expands the best ones into names.
+public class WeightSweepEngine {
+    private static final int CACHE_SIZE = 64;
+
+    private final RecommendationEngine engine;
+    private final Map<String, Components> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Components> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public WeightSweepEngine(RecommendationEngine engine) {
+        this.engine = engine;
+    }
+
+    public List<String> recommendPartners(String studentName, int max, int majorWeight, int skillWeight,
+                                          int collabPenalty, int communityBonus) {
+        Components components = componentsFor(studentName);
+        if (components == null) return Collections.emptyList();
+        return components.rank(max, majorWeight, skillWeight, collabPenalty, communityBonus);
+    }
+
+    // One ranking per profile; each profile is {majorWeight, skillWeight, collabPenalty, communityBonus}
+    public List<List<String>> recommendForProfiles(String studentName, int max, List<int[]> profiles) {
+        Components components = componentsFor(studentName);
+        List<List<String>> rankings = new ArrayList<>(profiles.size());
+        for (int[] w : profiles) {
+            rankings.add(components == null ? Collections.emptyList()
+                    : components.rank(max, w[0], w[1], w[2], w[3]));
+        }
+        return rankings;
+    }
+
+    // How many profiles in the grid put each candidate in the top max; a quick sensitivity report
+    public Map<String, Integer> topKFrequency(String studentName, int max, List<int[]> profiles) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (List<String> ranking : recommendForProfiles(studentName, max, profiles)) {
+            for (String name : ranking) {
+                counts.merge(name, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    // Every combination of the given weight values, in the order the loops nest
+    public static List<int[]> grid(int[] majorWeights, int[] skillWeights, int[] collabPenalties,
+                                   int[] communityBonuses) {
+        List<int[]> profiles = new ArrayList<>();
+        for (int m : majorWeights)
+            for (int s : skillWeights)
+                for (int c : collabPenalties)
+                    for (int b : communityBonuses)
+                        profiles.add(new int[] { m, s, c, b });
+        return profiles;
+    }
+
+    // Cached components are rebuilt once the engine's collaboration history changes,
+    // e.g. after a new term is ingested or a history is set for the first time
+    private Components componentsFor(String studentName) {
+        CollaborationHistory history = engine.getCollaborationHistory();
+        long version = history == null ? 0 : history.getVersion();
+        synchronized (cache) {
+            Components cached = cache.get(studentName);
+            if (cached != null && cached.history == history && cached.version == version) return cached;
+        }
+        if (!engine.getStudents().containsKey(studentName)) return null;
+        Components components = new Components(studentName, history, version);
+        synchronized (cache) {
+            cache.put(studentName, components);
+        }
+        return components;
+    }
+
+    // Candidates of one student bucketed by (major, skillSurplus, collab, community);
+    // collab is the decayed collaboration weight, 0 or 1 without a history
+    private class Components {
+        final int[] major;
+        final int[] surplus;
+        final double[] collab;
+        final int[] community;
+        final List<List<String>> members = new ArrayList<>();
+        final CollaborationHistory history;
+        final long version;
+
+        Components(String source, CollaborationHistory history, long version) {
+            this.history = history;
+            this.version = version;
+            Map<List<Number>, Integer> buckets = new HashMap<>();
+            List<Number[]> tuples = new ArrayList<>();
+            for (String candidate : engine.getStudents().keySet()) {
+                if (candidate.equals(source)) continue;
+                Number[] tuple = {
+                        engine.sharesMajor(source, candidate) ? 1 : 0,
+                        engine.skillSurplus(source, candidate),
+                        engine.collaborationWeight(source, candidate),
+                        engine.inDifferentCommunities(source, candidate) ? 1 : 0
+                };
+                List<Number> key = List.of(tuple);
+                Integer bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = tuples.size();
+                    buckets.put(key, bucket);
+                    tuples.add(tuple);
+                    members.add(new ArrayList<>());
+                }
+                members.get(bucket).add(candidate);
+            }
+
+            int size = tuples.size();
+            major = new int[size];
+            surplus = new int[size];
+            collab = new double[size];
+            community = new int[size];
+            for (int b = 0; b < size; b++) {
+                major[b] = tuples.get(b)[0].intValue();
+                surplus[b] = tuples.get(b)[1].intValue();
+                collab[b] = tuples.get(b)[2].doubleValue();
+                community[b] = tuples.get(b)[3].intValue();
+            }
+        }
+
+        List<String> rank(int max, int majorWeight, int skillWeight, int collabPenalty, int communityBonus) {
+            int size = major.length;
+            long[] order = new long[size];
+            for (int b = 0; b < size; b++) {
+                long score = (long) major[b] * majorWeight + (long) surplus[b] * skillWeight
+                        - Math.round(collab[b] * collabPenalty) + (long) community[b] * communityBonus;
+                // Negate the score so an ascending sort puts the best bucket first
+                order[b] = (-score << 32) | b;
+            }
+            Arrays.sort(order);
+
+            List<String> result = new ArrayList<>(max);
+            for (int i = 0; i < size && result.size() < max; i++) {
+                List<String> bucket = members.get((int) (order[i] & 0xffffffffL));
+                for (int k = 0; k < bucket.size() && result.size() < max; k++) {
+                    result.add(bucket.get(k));
+                }
+            }
+            return result;
+        }
+    }
+}